@@ -0,0 +1,144 @@
+package com.pm.analyticsservice.aggregate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+import patient.events.PatientEvent;
+
+/**
+ * Incrementally maintained patient statistics. Every structure is fixed-size and updated without
+ * locks, so reads are a handful of atomic loads and memory is bounded regardless of event volume.
+ * The last applied offset per partition makes applying an event idempotent across rebalances.
+ */
+@Component
+public class PatientAggregates {
+
+  public static final String PATIENT_CREATED = "PATIENT_CREATED";
+  public static final String PATIENT_UPDATED = "PATIENT_UPDATED";
+  public static final String PATIENT_DELETED = "PATIENT_DELETED";
+
+  private final LongAdder created = new LongAdder();
+  private final LongAdder updated = new LongAdder();
+  private final LongAdder deleted = new LongAdder();
+  private final HyperLogLog distinctPatients = new HyperLogLog(14);
+
+  private final TimeBucketCounter registrationsPerMinute =
+      new TimeBucketCounter(Duration.ofMinutes(1).toMillis(), 120);
+  private final TimeBucketCounter registrationsPerHour =
+      new TimeBucketCounter(Duration.ofHours(1).toMillis(), 48);
+  private final TimeBucketCounter registrationsPerDay =
+      new TimeBucketCounter(Duration.ofDays(1).toMillis(), 90);
+
+  private final Map<TopicPartition, Long> appliedOffsets = new ConcurrentHashMap<>();
+
+  public Long lastAppliedOffset(TopicPartition partition) {
+    return appliedOffsets.get(partition);
+  }
+
+  public boolean isApplied(TopicPartition partition, long offset) {
+    Long applied = appliedOffsets.get(partition);
+    return applied != null && offset <= applied;
+  }
+
+  public void markApplied(TopicPartition partition, long offset) {
+    appliedOffsets.merge(partition, offset, Math::max);
+  }
+
+  public void apply(PatientEvent event, long timestampMillis) {
+    distinctPatients.offer(event.getPatientId());
+    switch (event.getEventType()) {
+      case PATIENT_CREATED -> {
+        created.increment();
+        registrationsPerMinute.increment(timestampMillis);
+        registrationsPerHour.increment(timestampMillis);
+        registrationsPerDay.increment(timestampMillis);
+      }
+      case PATIENT_UPDATED -> updated.increment();
+      case PATIENT_DELETED -> deleted.increment();
+      default -> {
+        // Unknown types still count towards distinct patients
+      }
+    }
+  }
+
+  public long created() {
+    return created.sum();
+  }
+
+  public long updated() {
+    return updated.sum();
+  }
+
+  public long deleted() {
+    return deleted.sum();
+  }
+
+  public long distinctPatients() {
+    return distinctPatients.estimate();
+  }
+
+  public TimeBucketCounter registrations(Granularity granularity) {
+    return switch (granularity) {
+      case MINUTE -> registrationsPerMinute;
+      case HOUR -> registrationsPerHour;
+      case DAY -> registrationsPerDay;
+    };
+  }
+
+  public Map<TopicPartition, Long> appliedOffsets() {
+    return Map.copyOf(appliedOffsets);
+  }
+
+  /**
+   * Writes every aggregate together with the applied offsets. Callers must stop concurrent
+   * {@link #apply} calls first so the offsets match the counters.
+   */
+  public void writeTo(DataOutputStream out) throws IOException {
+    out.writeLong(created.sum());
+    out.writeLong(updated.sum());
+    out.writeLong(deleted.sum());
+    distinctPatients.writeTo(out);
+    registrationsPerMinute.writeTo(out);
+    registrationsPerHour.writeTo(out);
+    registrationsPerDay.writeTo(out);
+    out.writeInt(appliedOffsets.size());
+    for (Map.Entry<TopicPartition, Long> entry : appliedOffsets.entrySet()) {
+      byte[] topic = entry.getKey().topic().getBytes(StandardCharsets.UTF_8);
+      out.writeShort(topic.length);
+      out.write(topic);
+      out.writeInt(entry.getKey().partition());
+      out.writeLong(entry.getValue());
+    }
+  }
+
+  public void readFrom(ByteBuffer in) {
+    restore(created, in.getLong());
+    restore(updated, in.getLong());
+    restore(deleted, in.getLong());
+    distinctPatients.readFrom(in);
+    registrationsPerMinute.readFrom(in);
+    registrationsPerHour.readFrom(in);
+    registrationsPerDay.readFrom(in);
+    appliedOffsets.clear();
+    int partitions = in.getInt();
+    for (int i = 0; i < partitions; i++) {
+      byte[] topic = new byte[in.getShort()];
+      in.get(topic);
+      appliedOffsets.put(new TopicPartition(new String(topic, StandardCharsets.UTF_8), in.getInt()), in.getLong());
+    }
+  }
+
+  private static void restore(LongAdder adder, long value) {
+    adder.reset();
+    adder.add(value);
+  }
+
+  public enum Granularity { MINUTE, HOUR, DAY }
+}
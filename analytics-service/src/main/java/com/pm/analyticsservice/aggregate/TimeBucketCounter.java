@@ -0,0 +1,104 @@
+package com.pm.analyticsservice.aggregate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size ring of time buckets. A slot is recycled by swapping in a fresh bucket with CAS
+ * when time moves past it, so increments never take a lock and memory never grows.
+ */
+public final class TimeBucketCounter {
+
+  private final long widthMillis;
+  private final AtomicReferenceArray<Bucket> buckets;
+
+  public TimeBucketCounter(long widthMillis, int bucketCount) {
+    this.widthMillis = widthMillis;
+    this.buckets = new AtomicReferenceArray<>(bucketCount);
+  }
+
+  public void increment(long timestampMillis) {
+    add(timestampMillis, 1);
+  }
+
+  public void add(long timestampMillis, long delta) {
+    long index = Math.floorDiv(timestampMillis, widthMillis);
+    int slot = (int) Math.floorMod(index, (long) buckets.length());
+    while (true) {
+      Bucket bucket = buckets.get(slot);
+      if (bucket != null && bucket.index == index) {
+        bucket.count.add(delta);
+        return;
+      }
+      if (bucket != null && bucket.index > index) {
+        // Older than the window the ring still covers
+        return;
+      }
+      buckets.compareAndSet(slot, bucket, new Bucket(index));
+    }
+  }
+
+  public long widthMillis() {
+    return widthMillis;
+  }
+
+  public int bucketCount() {
+    return buckets.length();
+  }
+
+  /**
+   * Counts for the {@code limit} most recent buckets ending at {@code nowMillis}, oldest first.
+   */
+  public List<long[]> snapshot(long nowMillis, int limit) {
+    int size = Math.min(limit, buckets.length());
+    long newest = Math.floorDiv(nowMillis, widthMillis);
+    List<long[]> result = new ArrayList<>(size);
+    for (long index = newest - size + 1; index <= newest; index++) {
+      Bucket bucket = buckets.get((int) Math.floorMod(index, (long) buckets.length()));
+      long count = bucket != null && bucket.index == index ? bucket.count.sum() : 0;
+      result.add(new long[]{index * widthMillis, count});
+    }
+    return result;
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    out.writeInt(buckets.length());
+    for (int slot = 0; slot < buckets.length(); slot++) {
+      Bucket bucket = buckets.get(slot);
+      out.writeLong(bucket != null ? bucket.index : Long.MIN_VALUE);
+      out.writeLong(bucket != null ? bucket.count.sum() : 0);
+    }
+  }
+
+  void readFrom(ByteBuffer in) {
+    int length = in.getInt();
+    if (length != buckets.length()) {
+      throw new IllegalStateException("Snapshot has " + length + " buckets, expected " + buckets.length());
+    }
+    for (int slot = 0; slot < length; slot++) {
+      long index = in.getLong();
+      long count = in.getLong();
+      Bucket bucket = null;
+      if (index != Long.MIN_VALUE) {
+        bucket = new Bucket(index);
+        bucket.count.add(count);
+      }
+      buckets.set(slot, bucket);
+    }
+  }
+
+  private static final class Bucket {
+
+    private final long index;
+    private final LongAdder count = new LongAdder();
+
+    Bucket(long index) {
+      this.index = index;
+    }
+  }
+}
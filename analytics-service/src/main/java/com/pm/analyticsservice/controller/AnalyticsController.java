@@ -0,0 +1,60 @@
+package com.pm.analyticsservice.controller;
+
+import com.pm.analyticsservice.aggregate.PatientAggregates;
+import com.pm.analyticsservice.aggregate.PatientAggregates.Granularity;
+import com.pm.analyticsservice.aggregate.TimeBucketCounter;
+import com.pm.analyticsservice.dto.PatientSummaryDTO;
+import com.pm.analyticsservice.dto.RegistrationBucketDTO;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+// Gateway: /api/analytics/** -> Service: /analytics/**
+@RestController
+@RequestMapping("/analytics/patients")
+public class AnalyticsController {
+
+  private final PatientAggregates aggregates;
+
+  public AnalyticsController(PatientAggregates aggregates) {
+    this.aggregates = aggregates;
+  }
+
+  @GetMapping
+  public ResponseEntity<PatientSummaryDTO> getSummary() {
+    return ResponseEntity.ok(new PatientSummaryDTO(
+        aggregates.created(),
+        aggregates.updated(),
+        aggregates.deleted(),
+        aggregates.distinctPatients()));
+  }
+
+  @GetMapping("/registrations")
+  public ResponseEntity<List<RegistrationBucketDTO>> getRegistrations(
+      @RequestParam(defaultValue = "minute") String granularity,
+      @RequestParam(required = false) Integer limit) {
+    TimeBucketCounter counter = aggregates.registrations(parseGranularity(granularity));
+    int buckets = limit == null ? counter.bucketCount() : limit;
+    if (buckets <= 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+    }
+    return ResponseEntity.ok(counter.snapshot(System.currentTimeMillis(), buckets).stream()
+        .map(bucket -> new RegistrationBucketDTO(Instant.ofEpochMilli(bucket[0]), bucket[1]))
+        .toList());
+  }
+
+  private static Granularity parseGranularity(String granularity) {
+    try {
+      return Granularity.valueOf(granularity.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "granularity must be one of minute, hour, day");
+    }
+  }
+}
@@ -0,0 +1,4 @@
+package com.pm.analyticsservice.dto;
+
+public record PatientSummaryDTO(long created, long updated, long deleted, long distinctPatients) {
+}
@@ -0,0 +1,6 @@
+package com.pm.analyticsservice.dto;
+
+import java.time.Instant;
+
+public record RegistrationBucketDTO(Instant bucketStart, long registrations) {
+}
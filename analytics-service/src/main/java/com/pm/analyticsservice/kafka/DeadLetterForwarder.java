@@ -0,0 +1,64 @@
+package com.pm.analyticsservice.kafka;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import patient.events.PatientEvent;
+
+/**
+ * Routes undeserializable patient events to the dead-letter topic. Unlike {@link KafkaConsumer},
+ * whose group is unique per instance, every replica joins one shared group here, so each
+ * partition's poison records are forwarded by a single replica instead of once per replica.
+ */
+@Service
+public class DeadLetterForwarder {
+
+  private static final Logger log = LoggerFactory.getLogger(
+      DeadLetterForwarder.class);
+
+  private final DeadLetterPublisher deadLetterPublisher;
+  private final Counter deadLetterCounter;
+
+  public DeadLetterForwarder(DeadLetterPublisher deadLetterPublisher, MeterRegistry meterRegistry) {
+    this.deadLetterPublisher = deadLetterPublisher;
+    this.deadLetterCounter = meterRegistry.counter("analytics.consumer.dead.letters");
+  }
+
+  // Offsets are committed only after the dead letters are on the topic, so a crash re-forwards
+  // rather than loses them. Earliest so records produced before the group first existed are covered
+  @KafkaListener(topics = "patient",
+      groupId = "${analytics.consumer.dead-letter-group-id:analytics-service-dead-letters}",
+      batch = "true", properties = "auto.offset.reset=earliest")
+  public void forward(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+    List<ConsumerRecord<String, byte[]>> poisoned = new ArrayList<>();
+    List<String> reasons = new ArrayList<>();
+    for (ConsumerRecord<String, byte[]> record : records) {
+      if (record.value() == null) {
+        poisoned.add(record);
+        reasons.add("Record has no value");
+        continue;
+      }
+      try {
+        PatientEvent.parseFrom(record.value());
+      } catch (InvalidProtocolBufferException e) {
+        poisoned.add(record);
+        reasons.add(String.valueOf(e.getMessage()));
+      }
+    }
+
+    if (!poisoned.isEmpty()) {
+      log.error("Routing {} undeserializable events to the dead-letter topic", poisoned.size());
+      deadLetterPublisher.publish(poisoned, reasons);
+      deadLetterCounter.increment(poisoned.size());
+    }
+    acknowledgment.acknowledge();
+  }
+}
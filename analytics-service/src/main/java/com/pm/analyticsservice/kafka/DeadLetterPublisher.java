@@ -0,0 +1,59 @@
+package com.pm.analyticsservice.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Forwards records that cannot be parsed to the dead-letter topic, keeping the original
+ * key and value and recording where they came from in headers.
+ */
+@Component
+public class DeadLetterPublisher {
+
+  private final KafkaTemplate<String, byte[]> kafkaTemplate;
+  private final String deadLetterTopic;
+
+  public DeadLetterPublisher(KafkaTemplate<String, byte[]> kafkaTemplate,
+      @Value("${analytics.consumer.dead-letter-topic:patient.DLT}") String deadLetterTopic) {
+    this.kafkaTemplate = kafkaTemplate;
+    this.deadLetterTopic = deadLetterTopic;
+  }
+
+  /**
+   * Publishes and waits for every send, so the batch is only acknowledged once the poison
+   * records are safely on the dead-letter topic.
+   */
+  public void publish(List<ConsumerRecord<String, byte[]>> records, List<String> reasons) {
+    CompletableFuture<?>[] sends = new CompletableFuture<?>[records.size()];
+    for (int i = 0; i < records.size(); i++) {
+      ConsumerRecord<String, byte[]> record = records.get(i);
+      ProducerRecord<String, byte[]> deadLetter =
+          new ProducerRecord<>(deadLetterTopic, record.key(), record.value());
+      deadLetter.headers()
+          .add("dlt-original-topic", record.topic().getBytes(StandardCharsets.UTF_8))
+          .add("dlt-original-partition", String.valueOf(record.partition()).getBytes(StandardCharsets.UTF_8))
+          .add("dlt-original-offset", String.valueOf(record.offset()).getBytes(StandardCharsets.UTF_8))
+          .add("dlt-exception-message", reasons.get(i).getBytes(StandardCharsets.UTF_8));
+      sends[i] = kafkaTemplate.send(deadLetter);
+    }
+
+    try {
+      CompletableFuture.allOf(sends).get(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while publishing dead letters", e);
+    } catch (ExecutionException | TimeoutException e) {
+      // Failing the batch makes the container redeliver it instead of losing the poison records
+      throw new IllegalStateException("Failed to publish dead letters", e);
+    }
+  }
+}
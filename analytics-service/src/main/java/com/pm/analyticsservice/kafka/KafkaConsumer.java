@@ -1,30 +1,116 @@
 package com.pm.analyticsservice.kafka;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.pm.analyticsservice.aggregate.PatientAggregates;
+import com.pm.analyticsservice.store.StateStore;
+import com.pm.analyticsservice.store.StateStore.JournalBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 import patient.events.PatientEvent;
 
 @Service
-public class KafkaConsumer {
+public class KafkaConsumer implements ConsumerSeekAware {
 
   private static final Logger log = LoggerFactory.getLogger(
       KafkaConsumer.class);
 
-  @KafkaListener(topics="patient", groupId = "analytics-service")
-  public void consumeEvent(byte[] event) {
-    try {
-      PatientEvent patientEvent = PatientEvent.parseFrom(event);
-      // ... perform any business related to analytics here
-
-      log.info("Received Patient Event: [PatientId={},PatientName={},PatientEmail={}]",
-            patientEvent.getPatientId(),
-            patientEvent.getName(),
-            patientEvent.getEmail());
-    } catch (InvalidProtocolBufferException e) {
-      log.error("Error deserializing event {}", e.getMessage());
+  private final PatientAggregates aggregates;
+  private final StateStore stateStore;
+  private final Timer batchTimer;
+  private final Timer eventAgeTimer;
+  private final DistributionSummary batchSize;
+  private final Counter skippedCounter;
+
+  public KafkaConsumer(PatientAggregates aggregates, StateStore stateStore,
+      MeterRegistry meterRegistry) {
+    this.aggregates = aggregates;
+    this.stateStore = stateStore;
+    this.batchTimer = Timer.builder("analytics.consumer.batch")
+        .description("Time to process one polled batch of patient events")
+        .register(meterRegistry);
+    this.eventAgeTimer = Timer.builder("analytics.consumer.event.age")
+        .description("Delay between a patient event being produced and being processed")
+        .register(meterRegistry);
+    this.batchSize = DistributionSummary.builder("analytics.consumer.batch.size")
+        .register(meterRegistry);
+    this.skippedCounter = meterRegistry.counter("analytics.consumer.skipped");
+  }
+
+  // Aggregates are restored from the local state store, so only the tail after the last applied
+  // offset is consumed; partitions the store has never seen are replayed from the start
+  @Override
+  public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+    for (TopicPartition partition : assignments.keySet()) {
+      Long applied = aggregates.lastAppliedOffset(partition);
+      if (applied == null) {
+        callback.seekToBeginning(List.of(partition));
+      } else {
+        callback.seek(partition.topic(), partition.partition(), applied + 1);
+      }
+    }
+  }
+
+  // Each of the `concurrency` containers owns a subset of this instance's partitions. The group is unique
+  // per instance, so replicas never split the topic between them, and with ack-mode manual and no
+  // Acknowledgment nothing is ever committed to it: offsets live in the state store alone
+  @KafkaListener(topics = "patient", groupId = "${analytics.consumer.group-id:analytics-service-${random.uuid}}", batch = "true",
+      concurrency = "${analytics.consumer.concurrency:3}")
+  public void consumeEvents(List<ConsumerRecord<String, byte[]>> records) {
+    long start = System.nanoTime();
+    stateStore.applyBatch(journal -> process(records, journal));
+    batchSize.record(records.size());
+    batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private void process(List<ConsumerRecord<String, byte[]>> records, JournalBatch journal) {
+    long now = System.currentTimeMillis();
+
+    List<ConsumerRecord<String, byte[]>> poisoned = new ArrayList<>();
+    List<String> reasons = new ArrayList<>();
+    for (ConsumerRecord<String, byte[]> record : records) {
+      TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+      if (aggregates.isApplied(partition, record.offset())) {
+        continue;
+      }
+      if (record.value() == null) {
+        poisoned.add(record);
+        reasons.add("Record has no value");
+        continue;
+      }
+      try {
+        PatientEvent event = PatientEvent.parseFrom(record.value());
+        aggregates.apply(event, record.timestamp());
+        aggregates.markApplied(partition, record.offset());
+        journal.applied(partition, record.offset(), record.timestamp(), event);
+        eventAgeTimer.record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+      } catch (InvalidProtocolBufferException e) {
+        poisoned.add(record);
+        reasons.add(String.valueOf(e.getMessage()));
+      }
+    }
+
+    if (!poisoned.isEmpty()) {
+      // DeadLetterForwarder sends these to the dead-letter topic once for all replicas
+      log.warn("Skipping {} undeserializable events: {}", poisoned.size(), reasons);
+      skippedCounter.increment(poisoned.size());
+      for (ConsumerRecord<String, byte[]> record : poisoned) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        aggregates.markApplied(partition, record.offset());
+        journal.skipped(partition, record.offset());
+      }
     }
   }
 }
@@ -0,0 +1,319 @@
+package com.pm.analyticsservice.store;
+
+import com.pm.analyticsservice.aggregate.PatientAggregates;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import patient.events.PatientEvent;
+
+/**
+ * Local durability for {@link PatientAggregates}: a compact snapshot (aggregates plus the
+ * consumed offset of every partition) written through a memory-mapped file, and an append-only
+ * journal of everything applied since. A restart loads the snapshot, replays the journal and
+ * then only has to consume the Kafka tail after the restored offsets.
+ */
+@Component
+public class StateStore {
+
+  private static final Logger log = LoggerFactory.getLogger(StateStore.class);
+
+  private static final int SNAPSHOT_MAGIC = 0x50415331; // "PAS1"
+  private static final int SNAPSHOT_VERSION = 1;
+  private static final byte ENTRY_SKIPPED = 0;
+  private static final byte ENTRY_APPLIED = 1;
+
+  private final PatientAggregates aggregates;
+  private final Path snapshotFile;
+  private final Path journalFile;
+  private final boolean fsyncJournal;
+
+  // Batches hold the read lock so they run concurrently; a snapshot takes the write lock so the
+  // offsets it records always match the counters it records
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Timer restoreTimer;
+  private final Timer snapshotTimer;
+  private final AtomicLong replayedEntries = new AtomicLong();
+  private FileChannel journal;
+
+  public StateStore(PatientAggregates aggregates, MeterRegistry meterRegistry,
+      @Value("${analytics.state.dir:analytics-state}") Path directory,
+      @Value("${analytics.state.journal-fsync:true}") boolean fsyncJournal) {
+    this.aggregates = aggregates;
+    this.snapshotFile = directory.resolve("snapshot.bin");
+    this.journalFile = directory.resolve("journal.log");
+    this.fsyncJournal = fsyncJournal;
+    this.restoreTimer = Timer.builder("analytics.state.restore")
+        .description("Time to load the snapshot and replay the journal on startup")
+        .register(meterRegistry);
+    this.snapshotTimer = Timer.builder("analytics.state.snapshot")
+        .register(meterRegistry);
+    meterRegistry.gauge("analytics.state.restore.replayed.entries", replayedEntries);
+  }
+
+  @PostConstruct
+  public void restore() throws IOException {
+    Files.createDirectories(snapshotFile.getParent());
+    restoreTimer.record(() -> {
+      if (!loadSnapshot()) {
+        // Without a trustworthy base the journal tail cannot be applied; rebuild from the topic
+        deleteQuietly(journalFile);
+      }
+      replayJournal();
+    });
+    journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    log.info("Restored analytics state: {} created, offsets {}, {} journal entries replayed",
+        aggregates.created(), aggregates.appliedOffsets(), replayedEntries.get());
+  }
+
+  /**
+   * Runs one consumer batch. Everything recorded on the {@link JournalBatch} is appended to the
+   * journal in a single write before the batch returns.
+   */
+  public void applyBatch(Consumer<JournalBatch> work) {
+    lock.readLock().lock();
+    try {
+      JournalBatch batch = new JournalBatch();
+      try {
+        work.accept(batch);
+      } finally {
+        // Whatever was applied before a failure is already in memory and must be journaled too
+        if (batch.bytes.size() > 0) {
+          appendToJournal(batch.bytes.toByteArray());
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${analytics.state.snapshot-interval:30s}")
+  public void snapshot() {
+    lock.writeLock().lock();
+    try {
+      snapshotTimer.record(() -> {
+        try {
+          writeSnapshot();
+          journal.truncate(0);
+          journal.force(true);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      log.error("Failed to write analytics snapshot: {}", e.getMessage());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    snapshot();
+    journal.close();
+  }
+
+  private void writeSnapshot() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * 1024);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(SNAPSHOT_MAGIC);
+    out.writeInt(SNAPSHOT_VERSION);
+    aggregates.writeTo(out);
+    out.flush();
+    byte[] body = bytes.toByteArray();
+
+    Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, body.length + 4L);
+      mapped.put(body);
+      mapped.putInt(crc(body, 0, body.length));
+      mapped.force();
+    }
+    Files.move(tmp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private boolean loadSnapshot() {
+    if (!Files.exists(snapshotFile)) {
+      return true;
+    }
+    try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      int bodyLength = mapped.limit() - 4;
+      if (bodyLength < 8 || mapped.getInt(bodyLength) != crc(mapped, 0, bodyLength)) {
+        log.warn("Analytics snapshot is corrupt, rebuilding state from the topic");
+        return false;
+      }
+      if (mapped.getInt() != SNAPSHOT_MAGIC || mapped.getInt() != SNAPSHOT_VERSION) {
+        log.warn("Unsupported analytics snapshot format, rebuilding state from the topic");
+        return false;
+      }
+      // Past this point a failure means the ring or HLL sizes changed; fail startup rather than
+      // continue from partially restored aggregates
+      aggregates.readFrom(mapped);
+      return true;
+    } catch (IOException e) {
+      log.warn("Could not load analytics snapshot ({}), rebuilding state from the topic", e.getMessage());
+      return false;
+    }
+  }
+
+  private void replayJournal() {
+    if (!Files.exists(journalFile)) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      int position = 0;
+      while (mapped.limit() - position >= 8) {
+        int length = mapped.getInt(position);
+        if (length <= 0 || length > mapped.limit() - position - 8
+            || mapped.getInt(position + 4 + length) != crc(mapped, position + 4, length)) {
+          break;
+        }
+        replayEntry(mapped.slice(position + 4, length));
+        replayedEntries.incrementAndGet();
+        position += 8 + length;
+      }
+      if (position < channel.size()) {
+        // A torn write from a crash mid-append; drop it so new entries follow valid ones
+        log.warn("Truncating {} bytes of incomplete journal", channel.size() - position);
+        channel.truncate(position);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void replayEntry(ByteBuffer entry) {
+    TopicPartition partition = new TopicPartition(readString(entry), entry.getInt());
+    long offset = entry.getLong();
+    byte kind = entry.get();
+    if (aggregates.isApplied(partition, offset)) {
+      return;
+    }
+    if (kind == ENTRY_APPLIED) {
+      long timestamp = entry.getLong();
+      PatientEvent event = PatientEvent.newBuilder()
+          .setEventType(readString(entry))
+          .setPatientId(readString(entry))
+          .build();
+      aggregates.apply(event, timestamp);
+    }
+    aggregates.markApplied(partition, offset);
+  }
+
+  private void appendToJournal(byte[] entries) {
+    try {
+      synchronized (this) {
+        ByteBuffer buffer = ByteBuffer.wrap(entries);
+        while (buffer.hasRemaining()) {
+          journal.write(buffer);
+        }
+        if (fsyncJournal) {
+          journal.force(false);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int crc(byte[] bytes, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+
+  private static int crc(ByteBuffer buffer, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(offset, length));
+    return (int) crc.getValue();
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Could not delete {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Journal entries for one batch: {@code [length][payload][crc32]} each, so a torn tail is detectable.
+   */
+  public static final class JournalBatch {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream entry = new ByteArrayOutputStream(128);
+    private final DataOutputStream entryOut = new DataOutputStream(entry);
+
+    public void applied(TopicPartition partition, long offset, long timestamp, PatientEvent event) {
+      write(partition, offset, ENTRY_APPLIED, timestamp, event);
+    }
+
+    public void skipped(TopicPartition partition, long offset) {
+      write(partition, offset, ENTRY_SKIPPED, 0, null);
+    }
+
+    private void write(TopicPartition partition, long offset, byte kind, long timestamp, PatientEvent event) {
+      try {
+        entry.reset();
+        writeString(partition.topic());
+        entryOut.writeInt(partition.partition());
+        entryOut.writeLong(offset);
+        entryOut.writeByte(kind);
+        if (event != null) {
+          entryOut.writeLong(timestamp);
+          writeString(event.getEventType());
+          writeString(event.getPatientId());
+        }
+        entryOut.flush();
+
+        byte[] payload = entry.toByteArray();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt(crc(payload, 0, payload.length));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void writeString(String value) throws IOException {
+      byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+      entryOut.writeShort(encoded.length);
+      entryOut.write(encoded);
+    }
+  }
+}
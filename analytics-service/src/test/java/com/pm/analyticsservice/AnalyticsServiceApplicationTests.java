@@ -1,11 +1,24 @@
 package com.pm.analyticsservice;
 
+import java.nio.file.Path;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest
 class AnalyticsServiceApplicationTests {
 
+  // Keeps the snapshot and journal out of the working directory, i.e. the source tree
+  @TempDir
+  static Path stateDir;
+
+  @DynamicPropertySource
+  static void stateDir(DynamicPropertyRegistry registry) {
+    registry.add("analytics.state.dir", stateDir::toString);
+  }
+
   @Test
   void contextLoads() {
   }
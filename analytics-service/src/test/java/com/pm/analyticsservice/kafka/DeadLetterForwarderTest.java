@@ -0,0 +1,54 @@
+package com.pm.analyticsservice.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+import patient.events.PatientEvent;
+
+class DeadLetterForwarderTest {
+
+  private final DeadLetterPublisher publisher = mock(DeadLetterPublisher.class);
+  private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final DeadLetterForwarder forwarder = new DeadLetterForwarder(publisher, meterRegistry);
+
+  @Test
+  void forwardsOnlyPoisonRecordsThenAcknowledges() {
+    ConsumerRecord<String, byte[]> valid = record(0, PatientEvent.newBuilder()
+        .setPatientId("p1").setEventType("PATIENT_CREATED").build().toByteArray());
+    ConsumerRecord<String, byte[]> garbage = record(1, new byte[] {(byte) 0xff, 0x01});
+    ConsumerRecord<String, byte[]> empty = record(2, null);
+
+    forwarder.forward(List.of(valid, garbage, empty), acknowledgment);
+
+    verify(publisher).publish(eq(List.of(garbage, empty)), anyList());
+    verify(acknowledgment).acknowledge();
+    assertThat(meterRegistry.counter("analytics.consumer.dead.letters").count()).isEqualTo(2);
+  }
+
+  @Test
+  void doesNotAcknowledgeWhenPublishingFails() {
+    doThrow(new IllegalStateException("Failed to publish dead letters"))
+        .when(publisher).publish(anyList(), any());
+
+    assertThatThrownBy(() -> forwarder.forward(List.of(record(0, null)), acknowledgment))
+        .isInstanceOf(IllegalStateException.class);
+    verify(acknowledgment, never()).acknowledge();
+  }
+
+  private static ConsumerRecord<String, byte[]> record(long offset, byte[] value) {
+    return new ConsumerRecord<>("patient", 0, offset, "key", value);
+  }
+}
@@ -0,0 +1,135 @@
+package com.pm.analyticsservice.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pm.analyticsservice.aggregate.PatientAggregates;
+import com.pm.analyticsservice.aggregate.PatientAggregates.Granularity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import patient.events.PatientEvent;
+
+class StateStoreTest {
+
+  private static final long START = 1_700_000_000_000L;
+  private static final String[] TYPES = {
+      PatientAggregates.PATIENT_CREATED, PatientAggregates.PATIENT_UPDATED, PatientAggregates.PATIENT_DELETED};
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void restoreAfterCrashMatchesFullReplay() throws IOException {
+    List<Record> topic = generateTopic(3, 2_000);
+
+    PatientAggregates replayed = new PatientAggregates();
+    topic.forEach(record -> record.applyTo(replayed));
+
+    PatientAggregates beforeCrash = new PatientAggregates();
+    StateStore store = newStore(beforeCrash);
+    consume(store, beforeCrash, topic.subList(0, 2_500));
+    store.snapshot();
+    consume(store, beforeCrash, topic.subList(2_500, 4_000));
+    // Crash without a final snapshot, leaving half an entry at the end of the journal
+    Files.write(dir.resolve("journal.log"), new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    PatientAggregates restored = new PatientAggregates();
+    newStore(restored);
+    assertThat(restored.appliedOffsets()).isEqualTo(beforeCrash.appliedOffsets());
+
+    // Consume the Kafka tail from just past the restored offsets
+    for (Record record : topic) {
+      Long applied = restored.lastAppliedOffset(record.partition);
+      if (applied == null || record.offset > applied) {
+        record.applyTo(restored);
+      }
+    }
+
+    assertThat(restored.created()).isEqualTo(replayed.created());
+    assertThat(restored.updated()).isEqualTo(replayed.updated());
+    assertThat(restored.deleted()).isEqualTo(replayed.deleted());
+    assertThat(restored.distinctPatients()).isEqualTo(replayed.distinctPatients());
+    assertThat(restored.appliedOffsets()).isEqualTo(replayed.appliedOffsets());
+    long now = topic.get(topic.size() - 1).timestamp;
+    for (Granularity granularity : Granularity.values()) {
+      assertThat(restored.registrations(granularity).snapshot(now, 200))
+          .containsExactlyElementsOf(replayed.registrations(granularity).snapshot(now, 200));
+    }
+  }
+
+  @Test
+  void corruptSnapshotDiscardsStateForFullReplay() throws IOException {
+    List<Record> topic = generateTopic(1, 100);
+    PatientAggregates aggregates = new PatientAggregates();
+    StateStore store = newStore(aggregates);
+    consume(store, aggregates, topic);
+    store.snapshot();
+
+    Path snapshot = dir.resolve("snapshot.bin");
+    byte[] bytes = Files.readAllBytes(snapshot);
+    bytes[bytes.length / 2] ^= 0x7f;
+    Files.write(snapshot, bytes);
+
+    PatientAggregates restored = new PatientAggregates();
+    newStore(restored);
+    assertThat(restored.created()).isZero();
+    assertThat(restored.appliedOffsets()).isEmpty();
+  }
+
+  private StateStore newStore(PatientAggregates aggregates) throws IOException {
+    StateStore store = new StateStore(aggregates, new SimpleMeterRegistry(), dir, true);
+    store.restore();
+    return store;
+  }
+
+  private static void consume(StateStore store, PatientAggregates aggregates, List<Record> records) {
+    for (int from = 0; from < records.size(); from += 100) {
+      List<Record> batch = records.subList(from, Math.min(records.size(), from + 100));
+      store.applyBatch(journal -> {
+        for (Record record : batch) {
+          record.applyTo(aggregates);
+          if (record.event == null) {
+            journal.skipped(record.partition, record.offset);
+          } else {
+            journal.applied(record.partition, record.offset, record.timestamp, record.event);
+          }
+        }
+      });
+    }
+  }
+
+  // Interleaves partitions the way a consumer sees them; every 97th offset is a poison record
+  private static List<Record> generateTopic(int partitions, int perPartition) {
+    List<Record> records = new ArrayList<>();
+    for (int offset = 0; offset < perPartition; offset++) {
+      for (int p = 0; p < partitions; p++) {
+        long timestamp = START + (long) (offset * partitions + p) * 7_000;
+        PatientEvent event = PatientEvent.newBuilder()
+            .setPatientId("patient-" + ((offset * 31 + p) % 1_500))
+            .setEventType(TYPES[(offset + p) % TYPES.length])
+            .build();
+        records.add(new Record(new TopicPartition("patient", p), offset, timestamp,
+            offset % 97 == 0 ? null : event));
+      }
+    }
+    return records;
+  }
+
+  private record Record(TopicPartition partition, long offset, long timestamp, PatientEvent event) {
+
+    // Poison records (no event) only advance the offset, as after a dead-letter hand-off
+    void applyTo(PatientAggregates aggregates) {
+      if (event != null) {
+        aggregates.apply(event, timestamp);
+      }
+      aggregates.markApplied(partition, offset);
+    }
+  }
+}
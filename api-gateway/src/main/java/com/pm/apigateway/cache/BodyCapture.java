@@ -0,0 +1,66 @@
+package com.pm.apigateway.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copies a response body as it streams past to the client, giving up once it exceeds a size
+ * limit, so the body can be replayed to other clients.
+ */
+public final class BodyCapture {
+
+    // Recomputed or connection-specific; never replayed
+    private static final List<String> UNREPLAYABLE_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            HttpHeaders.DATE, HttpHeaders.SET_COOKIE);
+
+    private final int limit;
+    private byte[] bytes = new byte[1024];
+    private int size;
+    private boolean overflowed;
+
+    public BodyCapture(int limit) {
+        this.limit = limit;
+    }
+
+    public void append(DataBuffer buffer) {
+        int length = buffer.readableByteCount();
+        if (overflowed || size + length > limit) {
+            overflowed = true;
+            return;
+        }
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), size, length);
+        size += length;
+    }
+
+    public boolean overflowed() {
+        return overflowed;
+    }
+
+    public byte[] bytes() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * A read-only copy of the response headers that can be sent again with the captured body.
+     *
+     * @param exclude further headers to leave out, e.g. ones the calling filter sets itself
+     */
+    public static HttpHeaders replayableHeaders(HttpHeaders headers, String... exclude) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (UNREPLAYABLE_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                    && Arrays.stream(exclude).noneMatch(name::equalsIgnoreCase)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+}
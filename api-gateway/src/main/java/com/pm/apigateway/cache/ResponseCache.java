@@ -0,0 +1,121 @@
+package com.pm.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-heap store of GET responses from patient-service, weighed by body size.
+ * <p>
+ * Invalidation is lazy: a patient change records when it happened, and any entry fetched before
+ * that moment is treated as absent. Entries for a single patient are invalidated by that
+ * patient's changes; collection responses (lists, searches) by any change. Entries are stamped
+ * with the time their request was sent upstream, so a response that raced with a change is never
+ * served as fresh. Change markers only need to outlive the TTL, after which every entry they could
+ * have invalidated has expired anyway.
+ */
+@Component
+public class ResponseCache {
+
+    private final Cache<Key, Entry> entries;
+    private final Cache<UUID, Long> patientChangedAt;
+    private final AtomicLong anyPatientChangedAt = new AtomicLong(System.nanoTime());
+    private final int maxEntryBytes;
+
+    public ResponseCache(@Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${gateway.response-cache.max-entry-bytes:262144}") int maxEntryBytes,
+                         @Value("${gateway.response-cache.ttl:60s}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.patientChangedAt = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "gateway.response");
+        meterRegistry.gauge("gateway.response.cache.bytes", entries,
+                cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+    }
+
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * The cached response, or {@code null} if there is none or a patient change invalidated it.
+     */
+    public Entry get(Key key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isInvalidated(entry, key.patientId())) {
+            entries.invalidate(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(Key key, Entry entry) {
+        if (!isInvalidated(entry, key.patientId())) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Invalidates everything that may show the patient: its own entries and every collection.
+     */
+    public void patientChanged(UUID patientId) {
+        long now = System.nanoTime();
+        patientChangedAt.put(patientId, now);
+        anyPatientChangedAt.accumulateAndGet(now, Math::max);
+    }
+
+    /**
+     * Invalidates every collection response, e.g. after a patient was created.
+     */
+    public void collectionsChanged() {
+        anyPatientChangedAt.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    private boolean isInvalidated(Entry entry, UUID patientId) {
+        if (patientId == null) {
+            return entry.fetchedAtNanos() - anyPatientChangedAt.get() <= 0;
+        }
+        Long changedAt = patientChangedAt.getIfPresent(patientId);
+        return changedAt != null && entry.fetchedAtNanos() - changedAt <= 0;
+    }
+
+    /**
+     * @param patientId      the patient a single-patient response is about, {@code null} for collections
+     * @param accept         Accept header, since one path can be served as JSON or protobuf
+     * @param acceptEncoding Accept-Encoding header, since the stored body may be gzip or zstd encoded
+     */
+    public record Key(String principal, String pathAndQuery, String accept, String acceptEncoding, UUID patientId) {
+    }
+
+    /**
+     * @param headers        response headers to replay, without hop-by-hop and length headers
+     * @param fetchedAtNanos {@link System#nanoTime()} when the request was sent upstream
+     */
+    public record Entry(HttpHeaders headers, byte[] body, String eTag, long fetchedAtNanos) {
+
+        int weight() {
+            // Rough per-entry overhead for the key, headers and bookkeeping
+            return body.length + 512;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.pm.apigateway.filter;
+
+import com.pm.apigateway.limit.AdaptiveConcurrencyLimiter;
+import com.pm.apigateway.limit.ConcurrencyLimiters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits requests to a route's backend up to its adaptive concurrency limit and rejects the rest
+ * straight away with 503 and Retry-After, instead of letting them queue in the gateway until
+ * they time out. Placed after ResponseCache, so cache hits never count against the backend.
+ * Latency samples are taken at time to response headers; the slot is held until the body is done.
+ * <p>
+ * Optional argument: the route's bulkhead size (maximum limit), e.g. {@code AdaptiveConcurrency=100}.
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+  private final ConcurrencyLimiters limiters;
+  private final String retryAfterSeconds;
+
+  public AdaptiveConcurrencyGatewayFilterFactory(ConcurrencyLimiters limiters,
+                                                 @Value("${gateway.concurrency.retry-after:1s}") Duration retryAfter) {
+    super(Config.class);
+    this.limiters = limiters;
+    this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("maxLimit");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return (exchange, chain) -> {
+      Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+      ConcurrencyLimiters.RouteLimiter routeLimiter = limiters.forRoute(
+              route != null ? route.getId() : "unknown", config.getMaxLimit());
+      AdaptiveConcurrencyLimiter limiter = routeLimiter.limiter();
+
+      if (!limiter.tryAcquire()) {
+        routeLimiter.rejected().increment();
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        return exchange.getResponse().setComplete();
+      }
+
+      int inFlightAtStart = limiter.getInFlight();
+      long start = System.nanoTime();
+      // The sample ends when the response headers go out: a streamed export or a slow client would
+      // otherwise stretch it to the whole body transfer and collapse the limit for ordinary reads
+      AtomicLong committedAt = new AtomicLong();
+      exchange.getResponse().beforeCommit(() -> {
+        committedAt.compareAndSet(0, System.nanoTime());
+        return Mono.empty();
+      });
+      return chain.filter(exchange).doFinally(signal -> {
+        if (signal == SignalType.CANCEL) {
+          limiter.onIgnored();
+          return;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (signal == SignalType.ON_ERROR || isOverloadStatus(status)) {
+          limiter.onDropped();
+        } else {
+          long end = committedAt.get();
+          limiter.onSuccess((end != 0 ? end : System.nanoTime()) - start, inFlightAtStart);
+        }
+      });
+    };
+  }
+
+  // Statuses that mean the backend (or the way to it) is struggling, not that the request was bad
+  private static boolean isOverloadStatus(HttpStatusCode status) {
+    return status != null && (status.value() == 429 || status.value() == 502
+            || status.value() == 503 || status.value() == 504);
+  }
+
+  public static class Config {
+
+    private Integer maxLimit;
+
+    public Integer getMaxLimit() {
+      return maxLimit;
+    }
+
+    public void setMaxLimit(Integer maxLimit) {
+      this.maxLimit = maxLimit;
+    }
+  }
+}
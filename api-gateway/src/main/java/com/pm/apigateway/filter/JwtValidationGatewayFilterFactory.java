@@ -1,5 +1,8 @@
 package com.pm.apigateway.filter;
 
+import com.pm.apigateway.security.LocalJwtVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,11 +18,32 @@ public class JwtValidationGatewayFilterFactory extends AbstractGatewayFilterFact
 
   Logger log = LoggerFactory.getLogger(JwtValidationGatewayFilterFactory.class);
 
+  public enum Mode { LOCAL, REMOTE }
+
+  /** Exchange attribute holding who the request was authenticated as, for per-principal caching. */
+  public static final String PRINCIPAL_ATTRIBUTE = JwtValidationGatewayFilterFactory.class.getName() + ".principal";
+
   private final WebClient webClient;
+  private final LocalJwtVerifier localJwtVerifier;
+  private final Mode mode;
+  private final Timer remoteTimer;
 
   public JwtValidationGatewayFilterFactory(WebClient.Builder webClientBuilder,
-                                           @Value("${auth.service.url}") String authServiceUrl) {
+                                           @Value("${auth.service.url}") String authServiceUrl,
+                                           @Value("${jwt.validation.mode:local}") String mode,
+                                           LocalJwtVerifier localJwtVerifier,
+                                           MeterRegistry meterRegistry) {
     this.webClient = webClientBuilder.baseUrl(authServiceUrl).build();
+    this.localJwtVerifier = localJwtVerifier;
+    this.mode = Mode.valueOf(mode.toUpperCase());
+    this.remoteTimer = Timer.builder("gateway.jwt.verification")
+            .tag("mode", "remote")
+            .register(meterRegistry);
+
+    if (this.mode == Mode.LOCAL && !localJwtVerifier.isEnabled()) {
+      throw new IllegalStateException("jwt.validation.mode=local requires jwt.secret to be set");
+    }
+    log.info("JWT validation mode: {}", this.mode);
   }
 
   @Override
@@ -42,15 +66,32 @@ public class JwtValidationGatewayFilterFactory extends AbstractGatewayFilterFact
         return exchange.getResponse().setComplete();
       }
 
+      if (mode == Mode.LOCAL) {
+        String subject = localJwtVerifier.verifiedSubject(token.substring(7));
+        if (subject == null) {
+          log.warn("Token rejected by local verification");
+          exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+          return exchange.getResponse().setComplete();
+        }
+        exchange.getAttributes().put(PRINCIPAL_ATTRIBUTE, subject);
+        return chain.filter(exchange);
+      }
+
       log.debug("Validating token with Auth Service...");
 
+      Timer.Sample sample = Timer.start();
       return webClient.get()
               .uri("/validate")
               .header(HttpHeaders.AUTHORIZATION, token)
               .retrieve()
               .toBodilessEntity()
-              .doOnSuccess(response -> log.debug("Token validated successfully"))
+              .doOnSuccess(response -> {
+                log.debug("Token validated successfully");
+                // /validate does not return the subject; the token itself identifies the principal
+                exchange.getAttributes().put(PRINCIPAL_ATTRIBUTE, LocalJwtVerifier.digest(token.substring(7)));
+              })
               .doOnError(error -> log.error("Token validation failed: {}", error.getMessage()))
+              .doFinally(signal -> sample.stop(remoteTimer))
               .then(chain.filter(exchange));
     };
   }
@@ -0,0 +1,219 @@
+package com.pm.apigateway.filter;
+
+import com.pm.apigateway.cache.BodyCapture;
+import com.pm.apigateway.security.LocalJwtVerifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight for idempotent reads: while a GET is on its way upstream, identical GETs wait for
+ * it and receive a copy of its response instead of being forwarded themselves.
+ * <p>
+ * Requests are identical when route, path, query, authorization scope, conditional headers and
+ * the route's vary headers match. Scope {@code principal} (default) shares responses between
+ * requests of the same authenticated principal, {@code authorization} only between requests
+ * carrying the same Authorization header, and {@code none} between everyone on the route.
+ * If the leader's response is too large, streamed or never arrives, waiters are forwarded on their
+ * own, as soon as that is known.
+ * Placed after ResponseCache and before AdaptiveConcurrency, so waiters take no backend slot.
+ */
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+  private static final String X_COALESCED = "X-Coalesced";
+  // A conditional request may get a different answer, so these always separate requests
+  private static final List<String> CONDITIONAL_HEADERS = List.of(
+          HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+
+  public enum Scope { PRINCIPAL, AUTHORIZATION, NONE }
+
+  private final Map<Key, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+  private final int maxBodyBytes;
+
+  public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry,
+                                               @Value("${gateway.coalescing.max-body-bytes:262144}") int maxBodyBytes) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+    this.maxBodyBytes = maxBodyBytes;
+    meterRegistry.gauge("gateway.coalescing.inflight", inFlight, Map::size);
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return (exchange, chain) -> {
+      ServerHttpRequest request = exchange.getRequest();
+      if (request.getMethod() != HttpMethod.GET) {
+        return chain.filter(exchange);
+      }
+      Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+      String routeId = route != null ? route.getId() : "unknown";
+      Key key = key(routeId, exchange, config);
+      if (key == null) {
+        count(routeId, "bypass");
+        return chain.filter(exchange);
+      }
+
+      Sinks.One<SharedResponse> sink = Sinks.one();
+      Sinks.One<SharedResponse> leader = inFlight.putIfAbsent(key, sink);
+      if (leader != null) {
+        count(routeId, "follower");
+        // Branch on whether the leader emitted: write() completes empty, so switchIfEmpty would also fire after it
+        return leader.asMono()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                  if (shared.isPresent()) {
+                    return write(exchange.getResponse(), shared.get());
+                  }
+                  // The leader's response could not be shared: go upstream like any other request
+                  count(routeId, "fallthrough");
+                  return chain.filter(exchange);
+                });
+      }
+
+      count(routeId, "leader");
+      return lead(exchange, chain, key, sink);
+    };
+  }
+
+  private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, Key key,
+                          Sinks.One<SharedResponse> sink) {
+    // No shareable body (error, cancel, oversized, streamed, bodiless): send waiters upstream on their own
+    Runnable release = () -> {
+      inFlight.remove(key, sink);
+      sink.tryEmitEmpty();
+    };
+    ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+      @Override
+      public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (getHeaders().getContentLength() > maxBodyBytes) {
+          release.run();
+          return super.writeWith(body);
+        }
+        BodyCapture capture = new BodyCapture(maxBodyBytes);
+        return super.writeWith(Flux.from(body)
+                .doOnNext(buffer -> {
+                  capture.append(buffer);
+                  if (capture.overflowed()) {
+                    // Release waiters now rather than after the rest of a large transfer
+                    release.run();
+                  }
+                })
+                .doOnComplete(() -> {
+                  // Later arrivals start a new flight rather than receive a finished response
+                  inFlight.remove(key, sink);
+                  if (!capture.overflowed() && getStatusCode() != null) {
+                    sink.tryEmitValue(new SharedResponse(getStatusCode(),
+                            BodyCapture.replayableHeaders(getHeaders()), capture.bytes()));
+                  }
+                }));
+      }
+
+      // Streaming media types such as the NDJSON export are flushed chunk by chunk and never shared
+      @Override
+      public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        release.run();
+        return super.writeAndFlushWith(body);
+      }
+    };
+    return chain.filter(exchange.mutate().response(capturing).build())
+            .doFinally(signal -> release.run());
+  }
+
+  private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+    response.setStatusCode(shared.status());
+    response.getHeaders().putAll(shared.headers());
+    response.getHeaders().set(X_COALESCED, "true");
+    response.getHeaders().setContentLength(shared.body().length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+  }
+
+  private static Key key(String routeId, ServerWebExchange exchange, Config config) {
+    ServerHttpRequest request = exchange.getRequest();
+    String scope = switch (config.getScope()) {
+      case PRINCIPAL -> exchange.getAttribute(JwtValidationGatewayFilterFactory.PRINCIPAL_ATTRIBUTE);
+      case AUTHORIZATION -> {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        yield authorization != null ? LocalJwtVerifier.digest(authorization) : "";
+      }
+      case NONE -> "";
+    };
+    if (scope == null) {
+      // Principal scope on a request nobody authenticated: never share
+      return null;
+    }
+    List<String> headerValues = new ArrayList<>();
+    for (String header : CONDITIONAL_HEADERS) {
+      headerValues.add(String.valueOf(request.getHeaders().get(header)));
+    }
+    for (String header : config.getVaryHeaders()) {
+      headerValues.add(String.valueOf(request.getHeaders().get(header)));
+    }
+    return new Key(routeId, request.getURI().getRawPath(), request.getURI().getRawQuery(), scope, headerValues);
+  }
+
+  private void count(String routeId, String role) {
+    counters.computeIfAbsent(routeId + '\n' + role, ignored -> Counter.builder("gateway.coalescing.requests")
+                    .description("GETs by coalescing role; followers / (leaders + followers) is the collapse ratio")
+                    .tag("route", routeId)
+                    .tag("role", role)
+                    .register(meterRegistry))
+            .increment();
+  }
+
+  private record Key(String routeId, String path, String query, String scope, List<String> headerValues) {
+  }
+
+  private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+  }
+
+  public static class Config {
+
+    private Scope scope = Scope.PRINCIPAL;
+    private List<String> varyHeaders = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+    public Scope getScope() {
+      return scope;
+    }
+
+    public void setScope(Scope scope) {
+      this.scope = scope;
+    }
+
+    public List<String> getVaryHeaders() {
+      return varyHeaders;
+    }
+
+    public void setVaryHeaders(List<String> varyHeaders) {
+      this.varyHeaders = varyHeaders;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.pm.apigateway.filter;
+
+import com.pm.apigateway.cache.BodyCapture;
+import com.pm.apigateway.cache.ResponseCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches successful GET responses per principal, path and Accept header, and answers
+ * If-None-Match from the cache. Must run after JwtValidation, which sets the principal.
+ * Writes through the route invalidate the affected patient right away; other replicas and
+ * writes that bypass this gateway are covered by the patient event listener.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+  private static final Pattern PATIENT_PATH = Pattern.compile("^/patients/([0-9a-fA-F-]{36})$");
+  private static final String X_CACHE = "X-Cache";
+  // POSTs that only read, so they neither invalidate nor get cached
+  private static final Pattern READ_ONLY_POST_PATH = Pattern.compile("^/patients/batch-get$");
+  private static final Set<HttpMethod> WRITE_METHODS = Set.of(
+          HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+  private final ResponseCache responseCache;
+  private final Counter hits;
+  private final Counter notModified;
+  private final Counter misses;
+  private final Counter bypassed;
+
+  public ResponseCacheGatewayFilterFactory(ResponseCache responseCache, MeterRegistry meterRegistry) {
+    this.responseCache = responseCache;
+    this.hits = counter(meterRegistry, "hit");
+    this.notModified = counter(meterRegistry, "not_modified");
+    this.misses = counter(meterRegistry, "miss");
+    this.bypassed = counter(meterRegistry, "bypass");
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("gateway.response.cache.requests")
+            .description("GET requests on cached routes by how the cache answered them")
+            .tag("result", result)
+            .register(meterRegistry);
+  }
+
+  @Override
+  public GatewayFilter apply(Object config) {
+    return (exchange, chain) -> {
+      ServerHttpRequest request = exchange.getRequest();
+      UUID patientId = patientId(request.getURI().getPath());
+
+      if (request.getMethod() == HttpMethod.POST && READ_ONLY_POST_PATH.matcher(request.getURI().getPath()).matches()) {
+        return chain.filter(exchange);
+      }
+
+      if (request.getMethod() != HttpMethod.GET) {
+        // HEAD and CORS preflight OPTIONS change nothing; dropping every list for them would empty the cache
+        if (!WRITE_METHODS.contains(request.getMethod())) {
+          return chain.filter(exchange);
+        }
+        if (patientId != null) {
+          responseCache.patientChanged(patientId);
+        } else {
+          responseCache.collectionsChanged();
+        }
+        return chain.filter(exchange);
+      }
+
+      String principal = exchange.getAttribute(JwtValidationGatewayFilterFactory.PRINCIPAL_ATTRIBUTE);
+      if (principal == null) {
+        bypassed.increment();
+        return chain.filter(exchange);
+      }
+
+      String query = request.getURI().getRawQuery();
+      ResponseCache.Key key = new ResponseCache.Key(principal,
+              query == null ? request.getURI().getRawPath() : request.getURI().getRawPath() + "?" + query,
+              request.getHeaders().getFirst(HttpHeaders.ACCEPT),
+              request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING),
+              patientId);
+
+      // no-cache asks for a fresh response; it is still stored for the next request
+      boolean noCache = request.getHeaders().getCacheControl() != null
+              && request.getHeaders().getCacheControl().contains("no-cache");
+      ResponseCache.Entry entry = noCache ? null : responseCache.get(key);
+      if (entry != null) {
+        return serve(exchange, entry);
+      }
+
+      misses.increment();
+      long fetchedAt = System.nanoTime();
+      ServerHttpResponse response = exchange.getResponse();
+      response.getHeaders().set(X_CACHE, "MISS");
+      ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+          if (!isCacheable(this)) {
+            return super.writeWith(body);
+          }
+          BodyCapture capture = new BodyCapture(responseCache.maxEntryBytes());
+          return super.writeWith(Flux.from(body)
+                  .doOnNext(capture::append)
+                  .doOnComplete(() -> {
+                    if (!capture.overflowed()) {
+                      responseCache.put(key, new ResponseCache.Entry(BodyCapture.replayableHeaders(getHeaders(), X_CACHE),
+                              capture.bytes(), getHeaders().getETag(), fetchedAt));
+                    }
+                  }));
+        }
+      };
+      return chain.filter(exchange.mutate().response(capturing).build());
+    };
+  }
+
+  private Mono<Void> serve(ServerWebExchange exchange, ResponseCache.Entry entry) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.getHeaders().putAll(entry.headers());
+    response.getHeaders().set(X_CACHE, "HIT");
+    response.getHeaders().set(HttpHeaders.AGE, String.valueOf(
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - entry.fetchedAtNanos())));
+
+    if (entry.eTag() != null && exchange.getRequest().getHeaders().getIfNoneMatch().stream()
+            .anyMatch(tag -> tag.equals("*") || weakEquals(tag, entry.eTag()))) {
+      notModified.increment();
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+      return response.setComplete();
+    }
+
+    hits.increment();
+    response.setStatusCode(HttpStatus.OK);
+    response.getHeaders().setContentLength(entry.body().length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+  }
+
+  private static boolean isCacheable(ServerHttpResponse response) {
+    if (response.getStatusCode() != HttpStatus.OK) {
+      return false;
+    }
+    String cacheControl = response.getHeaders().getCacheControl();
+    return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+  }
+
+  // If-None-Match uses weak comparison (RFC 9110 13.1.2)
+  private static boolean weakEquals(String a, String b) {
+    return stripWeak(a).equals(stripWeak(b));
+  }
+
+  private static String stripWeak(String tag) {
+    return tag.startsWith("W/") ? tag.substring(2) : tag;
+  }
+
+  private static UUID patientId(String path) {
+    Matcher matcher = PATIENT_PATH.matcher(path);
+    if (!matcher.matches()) {
+      return null;
+    }
+    try {
+      return UUID.fromString(matcher.group(1));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.pm.apigateway.kafka;
+
+import com.pm.apigateway.cache.ResponseCache;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Invalidates cached patient responses when patient-service publishes a change. Events are keyed
+ * by patientId, so the payload never needs decoding here.
+ */
+@Component
+public class PatientEventCacheListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientEventCacheListener.class);
+
+    private final ResponseCache responseCache;
+
+    public PatientEventCacheListener(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    //    Each replica joins its own consumer group so every instance sees every change
+    @KafkaListener(topics = "${gateway.response-cache.invalidation-topic:patient}",
+            groupId = "${gateway.response-cache.invalidation-group}")
+    public void onPatientEvent(ConsumerRecord<String, byte[]> record) {
+        try {
+            responseCache.patientChanged(UUID.fromString(record.key()));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // Without a usable key, drop every collection at least
+            log.warn("Patient event without a patient id key at offset {}", record.offset());
+            responseCache.collectionsChanged();
+        }
+    }
+}
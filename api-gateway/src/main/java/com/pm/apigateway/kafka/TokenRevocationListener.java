@@ -0,0 +1,52 @@
+package com.pm.apigateway.kafka;
+
+import com.pm.apigateway.security.RevokedTokens;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Feeds revocations announced by auth-service into {@link RevokedTokens}, so local JWT
+ * verification rejects a revoked token as /validate does. Records are keyed by token digest
+ * and carry the token's expiry in epoch milliseconds.
+ */
+@Component
+public class TokenRevocationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationListener.class);
+    // What auth-service applies to tokens issued without an expiry
+    private static final long LONGEST_TOKEN_SECONDS = 10 * 60 * 60;
+
+    private final RevokedTokens revokedTokens;
+
+    public TokenRevocationListener(RevokedTokens revokedTokens) {
+        this.revokedTokens = revokedTokens;
+    }
+
+    //    Each replica joins its own group and reads the topic from the start, so a replica that
+    //    starts after a revocation still learns of it; the topic only retains unexpired ones
+    @KafkaListener(topics = "${jwt.revocation.topic:token-revocations}",
+            groupId = "${jwt.revocation.group}",
+            properties = "auto.offset.reset=earliest")
+    public void onTokenRevoked(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            log.warn("Token revocation without a token digest at offset {}", record.offset());
+            return;
+        }
+        revokedTokens.revoke(record.key(), expiresAt(record));
+    }
+
+    private static Instant expiresAt(ConsumerRecord<String, byte[]> record) {
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(new String(record.value(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException | NullPointerException e) {
+            log.warn("Token revocation without a usable expiry at offset {}", record.offset());
+            return Instant.now().plusSeconds(LONGEST_TOKEN_SECONDS);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.pm.apigateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one backend that adapts to its latency, after the gradient algorithm of
+ * Netflix's concurrency-limits (Gradient2). A long-term average of response times approximates
+ * the backend's unloaded latency; while the short-term average stays close to it the limit grows
+ * by roughly its square root per sample, and as queueing inflates the short-term average the
+ * limit shrinks in proportion. Failures and timeouts cut the limit multiplicatively.
+ * <p>
+ * The limit is bounded by {@code maxLimit}, which is also the route's bulkhead: whatever the
+ * gradient says, one backend never holds more than that many upstream requests.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Short window reacts within a handful of requests; long window is the baseline
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    // Short RTT may exceed the baseline by this factor before the limit starts shrinking
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final MovingAverage shortRtt = new MovingAverage(SHORT_WINDOW);
+    private final MovingAverage longRtt = new MovingAverage(LONG_WINDOW);
+
+    private double estimatedLimit;
+    private volatile int limit;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a slot, or returns {@code false} if the route is at its limit.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot taken by a request that completed normally.
+     *
+     * @param inFlightAtStart requests in flight when this one was admitted, itself included
+     */
+    public void onSuccess(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart);
+    }
+
+    /**
+     * Releases a slot taken by a request that failed or timed out in the backend.
+     */
+    public synchronized void onDropped() {
+        inFlight.decrementAndGet();
+        estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF);
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Releases a slot without learning from it, e.g. when the client went away.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        double shortAverage = shortRtt.add(rttNanos);
+        double longAverage = longRtt.add(rttNanos);
+
+        // After a sustained slowdown the baseline has absorbed the slow samples; pull it back
+        // down quickly once latency recovers so the limit can grow again
+        if (longAverage / shortAverage > 2) {
+            longRtt.scale(0.95);
+        }
+
+        // Nothing to learn about capacity when demand is well below the limit
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longAverage / shortAverage));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Exponential moving average; a plain average until the window has filled once.
+     */
+    private static final class MovingAverage {
+
+        private final int window;
+        private final double factor;
+        private double value;
+        private int count;
+
+        MovingAverage(int window) {
+            this.window = window;
+            this.factor = 2.0 / (window + 1);
+        }
+
+        double add(double sample) {
+            if (count < window) {
+                count++;
+                value += (sample - value) / count;
+            } else {
+                value = value * (1 - factor) + sample * factor;
+            }
+            return value;
+        }
+
+        void scale(double ratio) {
+            value *= ratio;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.pm.apigateway.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per route, created on the route's first request, with
+ * its limit, in-flight count and rejections exported as {@code gateway.concurrency.*{route}}.
+ */
+@Component
+public class ConcurrencyLimiters {
+
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int defaultMaxLimit;
+
+    public ConcurrencyLimiters(MeterRegistry meterRegistry,
+                               @Value("${gateway.concurrency.initial-limit:20}") int initialLimit,
+                               @Value("${gateway.concurrency.min-limit:4}") int minLimit,
+                               @Value("${gateway.concurrency.max-limit:200}") int defaultMaxLimit) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.defaultMaxLimit = defaultMaxLimit;
+    }
+
+    /**
+     * @param maxLimit the route's bulkhead size, or {@code null} for the default
+     */
+    public RouteLimiter forRoute(String routeId, Integer maxLimit) {
+        return limiters.computeIfAbsent(routeId, id -> {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit,
+                    maxLimit != null ? maxLimit : defaultMaxLimit);
+            Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("route", id)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently forwarded to the route's backend")
+                    .tag("route", id)
+                    .register(meterRegistry);
+            Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                    .description("Requests rejected with 503 because the route was at its limit")
+                    .tag("route", id)
+                    .register(meterRegistry);
+            return new RouteLimiter(limiter, rejected);
+        });
+    }
+
+    public record RouteLimiter(AdaptiveConcurrencyLimiter limiter, Counter rejected) {
+    }
+}
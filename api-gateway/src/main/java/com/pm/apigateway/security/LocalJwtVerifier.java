@@ -0,0 +1,157 @@
+package com.pm.apigateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies HMAC-signed JWTs in-process using the same key material as auth-service's JwtUtil.
+ * Tokens that verified successfully are remembered by SHA-256 digest until their own expiry,
+ * so repeat requests carrying the same token skip signature verification entirely. Tokens
+ * auth-service has revoked are rejected before the cache is consulted.
+ */
+@Component
+public class LocalJwtVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalJwtVerifier.class);
+
+    private final JwtParser parser;
+    private final RevokedTokens revokedTokens;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+    private final Counter revokedCounter;
+
+    public LocalJwtVerifier(@Value("${jwt.secret:}") String secret,
+                            @Value("${jwt.cache.max-size:10000}") long maxCacheSize,
+                            RevokedTokens revokedTokens,
+                            MeterRegistry meterRegistry) {
+        // An absent secret only matters when local mode is actually selected
+        this.parser = secret.isBlank() ? null : Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Base64.getDecoder()
+                        .decode(secret.getBytes(StandardCharsets.UTF_8))))
+                .build();
+        this.revokedTokens = revokedTokens;
+
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return Math.max(0, token.expiresAt().toEpochMilli() - System.currentTimeMillis()) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        this.cacheHits = Counter.builder("gateway.jwt.cache")
+                .tag("result", "hit")
+                .description("Verified-token cache lookups")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("gateway.jwt.cache")
+                .tag("result", "miss")
+                .description("Verified-token cache lookups")
+                .register(meterRegistry);
+        this.validTimer = Timer.builder("gateway.jwt.verification")
+                .tag("mode", "local")
+                .tag("outcome", "valid")
+                .register(meterRegistry);
+        this.invalidTimer = Timer.builder("gateway.jwt.verification")
+                .tag("mode", "local")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+        this.revokedCounter = meterRegistry.counter("gateway.jwt.revoked");
+        meterRegistry.gauge("gateway.jwt.cache.size", verifiedTokens, Cache::estimatedSize);
+    }
+
+    public boolean isEnabled() {
+        return parser != null;
+    }
+
+    public boolean verify(String token) {
+        return verifiedSubject(token) != null;
+    }
+
+    /**
+     * The token's subject if it verifies, otherwise {@code null}. Tokens without a subject are
+     * identified by their digest instead.
+     */
+    public String verifiedSubject(String token) {
+        if (parser == null) {
+            throw new IllegalStateException("jwt.secret must be configured for local JWT validation");
+        }
+
+        String digest = digest(token);
+        if (revokedTokens.isRevoked(digest)) {
+            revokedCounter.increment();
+            return null;
+        }
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            cacheHits.increment();
+            return cached.subject();
+        }
+        cacheMisses.increment();
+
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String subject = claims.getSubject() != null ? claims.getSubject() : digest;
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                verifiedTokens.put(digest, new VerifiedToken(subject, expiration.toInstant()));
+            }
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return subject;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Local JWT verification failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(String subject, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.pm.apigateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Digests of tokens auth-service has revoked, each kept until the token would have expired anyway.
+ * Not bounded by size: dropping an entry would silently accept a revoked token again.
+ */
+@Component
+public class RevokedTokens {
+
+    private final Cache<String, Instant> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Instant>() {
+                @Override
+                public long expireAfterCreate(String key, Instant expiresAt, long currentTime) {
+                    return Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) * 1_000_000L;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Instant expiresAt, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, expiresAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Instant expiresAt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    public RevokedTokens(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("gateway.jwt.revoked.size", revoked, Cache::estimatedSize);
+    }
+
+    public void revoke(String tokenDigest, Instant expiresAt) {
+        if (expiresAt.isAfter(Instant.now())) {
+            revoked.put(tokenDigest, expiresAt);
+        }
+    }
+
+    public boolean isRevoked(String tokenDigest) {
+        return revoked.getIfPresent(tokenDigest) != null;
+    }
+}
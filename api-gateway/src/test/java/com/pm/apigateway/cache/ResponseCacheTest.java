@@ -0,0 +1,63 @@
+package com.pm.apigateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(1 << 20, 1024, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    void patientChangeInvalidatesThatPatientAndCollectionsOnly() {
+        UUID changed = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        ResponseCache.Key changedKey = key("/patients/" + changed, changed);
+        ResponseCache.Key otherKey = key("/patients/" + other, other);
+        ResponseCache.Key listKey = key("/patients?size=20", null);
+        cache.put(changedKey, entry());
+        cache.put(otherKey, entry());
+        cache.put(listKey, entry());
+
+        cache.patientChanged(changed);
+
+        assertThat(cache.get(changedKey)).isNull();
+        assertThat(cache.get(listKey)).isNull();
+        assertThat(cache.get(otherKey)).isNotNull();
+    }
+
+    @Test
+    void responseFetchedBeforeAChangeIsNotStored() {
+        UUID patientId = UUID.randomUUID();
+        ResponseCache.Key key = key("/patients/" + patientId, patientId);
+        ResponseCache.Entry inFlight = entry();
+
+        cache.patientChanged(patientId);
+        cache.put(key, inFlight);
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, entry());
+        assertThat(cache.get(key)).isNotNull();
+    }
+
+    @Test
+    void entriesAreKeptPerPrincipal() {
+        cache.put(new ResponseCache.Key("alice", "/patients", null, null, null), entry());
+
+        assertThat(cache.get(new ResponseCache.Key("bob", "/patients", null, null, null))).isNull();
+        assertThat(cache.get(new ResponseCache.Key("alice", "/patients", null, null, null))).isNotNull();
+    }
+
+    private static ResponseCache.Key key(String path, UUID patientId) {
+        return new ResponseCache.Key("user@test.com", path, "application/json", "gzip", patientId);
+    }
+
+    private static ResponseCache.Entry entry() {
+        return new ResponseCache.Entry(HttpHeaders.EMPTY, "{}".getBytes(), "\"etag\"", System.nanoTime());
+    }
+}
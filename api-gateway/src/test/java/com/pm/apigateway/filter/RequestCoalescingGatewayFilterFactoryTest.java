@@ -0,0 +1,113 @@
+package com.pm.apigateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatewayFilter filter = new RequestCoalescingGatewayFilterFactory(meterRegistry, 1024)
+            .apply(new RequestCoalescingGatewayFilterFactory.Config());
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCall() {
+        MockServerWebExchange first = exchange("/patients/1", "alice");
+        MockServerWebExchange second = exchange("/patients/1", "alice");
+
+        Mono.when(filter.filter(first, slowUpstream("{\"id\":1}")), filter.filter(second, slowUpstream("{\"id\":1}")))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Coalesced")).isEqualTo("true");
+        assertThat(count("leader")).isEqualTo(1);
+        assertThat(count("follower")).isEqualTo(1);
+    }
+
+    @Test
+    void differentPrincipalsAreNotCoalesced() {
+        Mono.when(filter.filter(exchange("/patients/1", "alice"), slowUpstream("{}")),
+                        filter.filter(exchange("/patients/1", "bob"), slowUpstream("{}")))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void waitersFallThroughWhenTheResponseIsTooLargeToShare() {
+        String large = "x".repeat(2048);
+        MockServerWebExchange second = exchange("/patients", "alice");
+
+        Mono.when(filter.filter(exchange("/patients", "alice"), slowUpstream(large)), filter.filter(second, slowUpstream(large)))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(large);
+        assertThat(count("fallthrough")).isEqualTo(1);
+    }
+
+    @Test
+    void waitersFallThroughAsSoonAsTheLeadersBodyOverflows() {
+        String large = "x".repeat(2048);
+        // The leader's upstream sends an oversized first chunk, then stalls
+        Mono<Void> leader = filter.filter(exchange("/patients/export", "alice"), exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeWith(Flux.concat(Mono.just(buffer(exchange, large)),
+                    Mono.delay(Duration.ofSeconds(10)).map(ignored -> buffer(exchange, "tail"))));
+        });
+        MockServerWebExchange second = exchange("/patients/export", "alice");
+        Mono<Void> follower = filter.filter(second, slowUpstream(large));
+
+        Disposable leading = leader.subscribe();
+        try {
+            follower.block(Duration.ofSeconds(2));
+        } finally {
+            leading.dispose();
+        }
+
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(large);
+        assertThat(count("fallthrough")).isEqualTo(1);
+    }
+
+    private static DataBuffer buffer(ServerWebExchange exchange, String body) {
+        return exchange.getResponse().bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private GatewayFilterChain slowUpstream(String body) {
+        return exchange -> Mono.delay(Duration.ofMillis(100)).then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                    .wrap(body.getBytes(StandardCharsets.UTF_8))));
+        }));
+    }
+
+    private static MockServerWebExchange exchange(String path, String principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(JwtValidationGatewayFilterFactory.PRINCIPAL_ATTRIBUTE, principal);
+        return exchange;
+    }
+
+    private double count(String role) {
+        return meterRegistry.get("gateway.coalescing.requests").tag("role", role).counter().count();
+    }
+}
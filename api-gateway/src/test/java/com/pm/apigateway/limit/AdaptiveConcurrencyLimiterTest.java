@@ -0,0 +1,76 @@
+package com.pm.apigateway.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void rejectsOnceTheLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.onIgnored();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileLatencyStaysFlatAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 500);
+
+        saturate(limiter, FAST, 500);
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        saturate(limiter, SLOW, 50);
+        assertThat(limiter.getLimit()).isLessThan(grown);
+    }
+
+    @Test
+    void neverExceedsTheBulkheadOrDropsBelowTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 50);
+
+        saturate(limiter, FAST, 2000);
+        assertThat(limiter.getLimit()).isEqualTo(50);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void doesNotGrowWhenDemandIsFarBelowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 500);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(FAST, 1);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    // Keeps the limiter full and completes one request at a time with the given latency
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            while (limiter.tryAcquire()) {
+                // fill up to the current limit
+            }
+            limiter.onSuccess(rttNanos, limiter.getInFlight());
+        }
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnored();
+        }
+    }
+}
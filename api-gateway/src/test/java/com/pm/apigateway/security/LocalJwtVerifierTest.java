@@ -0,0 +1,50 @@
+package com.pm.apigateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalJwtVerifierTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("a-test-secret-that-is-at-least-256-bits-long".getBytes(StandardCharsets.UTF_8));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RevokedTokens revokedTokens = new RevokedTokens(meterRegistry);
+    private final LocalJwtVerifier verifier = new LocalJwtVerifier(SECRET, 100, revokedTokens, meterRegistry);
+
+    @Test
+    void rejectsARevokedTokenEvenOnceCached() {
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        String token = token("alice@test.com", expiresAt);
+        assertThat(verifier.verifiedSubject(token)).isEqualTo("alice@test.com");
+
+        revokedTokens.revoke(LocalJwtVerifier.digest(token), expiresAt);
+
+        assertThat(verifier.verifiedSubject(token)).isNull();
+        assertThat(verifier.verifiedSubject(token("bob@test.com", expiresAt))).isEqualTo("bob@test.com");
+    }
+
+    @Test
+    void ignoresRevocationsOfTokensThatHaveAlreadyExpired() {
+        revokedTokens.revoke("digest", Instant.now().minusSeconds(1));
+
+        assertThat(revokedTokens.isRevoked("digest")).isFalse();
+    }
+
+    private static String token(String subject, Instant expiresAt) {
+        return Jwts.builder()
+                .subject(subject)
+                .expiration(Date.from(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET)))
+                .compact();
+    }
+}
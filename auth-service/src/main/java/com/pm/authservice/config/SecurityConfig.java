@@ -1,16 +1,26 @@
 package com.pm.authservice.config;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 public class SecurityConfig {
 
+    // A bcrypt hash without an {id} prefix, capturing its cost
+    private static final Pattern UNPREFIXED_BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll())
@@ -19,8 +29,34 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * New hashes are written as {@code {id}hash} with the configured encoder. Existing hashes
+     * without a prefix are plain bcrypt, as seeded by the V2 migration; those are only re-hashed
+     * when the configured bcrypt cost is at least their own, so an upgrade never weakens them.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.encoder:bcrypt}") String encoderId,
+                                           @Value("${auth.password.bcrypt-strength:12}") int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalArgumentException("Unknown auth.password.encoder: " + encoderId);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encoderId, encoders) {
+            @Override
+            public boolean upgradeEncoding(String prefixEncodedPassword) {
+                Matcher bcrypt = prefixEncodedPassword != null
+                        ? UNPREFIXED_BCRYPT.matcher(prefixEncodedPassword) : null;
+                if (bcrypt != null && bcrypt.lookingAt() && "bcrypt".equals(encoderId)) {
+                    // The default treats every unprefixed hash as outdated, whatever its cost
+                    return bcryptStrength >= Integer.parseInt(bcrypt.group(1));
+                }
+                return super.upgradeEncoding(prefixEncodedPassword);
+            }
+        };
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return passwordEncoder;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.pm.authservice.config;
+
+import com.pm.authservice.service.InMemoryTokenRevocationStore;
+import com.pm.authservice.service.TokenRevocationStore;
+import java.time.Duration;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class TokenRevocationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenRevocationStore tokenRevocationStore() {
+        return new InMemoryTokenRevocationStore();
+    }
+
+    // Keyed by token digest; a revocation only matters until the token expires
+    @Bean
+    public NewTopic tokenRevocationsTopic(@Value("${auth.jwt.revocation.topic:token-revocations}") String topic,
+                                          @Value("${auth.jwt.revocation.retention:12h}") Duration retention) {
+        return TopicBuilder.name(topic)
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(retention.toMillis()))
+                .build();
+    }
+}
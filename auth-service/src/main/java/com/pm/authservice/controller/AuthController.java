@@ -2,11 +2,13 @@ package com.pm.authservice.controller;
 
 import com.pm.authservice.dto.LoginRequestDTO;
 import com.pm.authservice.dto.LoginResponseDTO;
+import com.pm.authservice.exception.PasswordHashingUnavailableException;
 import com.pm.authservice.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,9 +36,17 @@ public class AuthController {
             return ResponseEntity.badRequest().build();
         }
 
-        log.info("Login attempt for user: {}", loginRequestDTO.toString());
+        log.debug("Login attempt for user: {}", loginRequestDTO.getEmail());
 
-        Optional<String> tokenOptional = authService.authenticate(loginRequestDTO);
+        Optional<String> tokenOptional;
+        try {
+            tokenOptional = authService.authenticate(loginRequestDTO);
+        } catch (PasswordHashingUnavailableException e) {
+            log.warn("Rejecting login for {}: {}", loginRequestDTO.getEmail(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
 
         if (tokenOptional.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -56,10 +66,22 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        log.info("Validating token: {}", authHeader.substring(7));
-
         return authService.validateToken(authHeader.substring(7))
                 ? ResponseEntity.ok().build()
                 : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
+
+    @Operation(summary = "Revoke token")
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revokeToken(
+            @RequestHeader("Authorization") String authHeader) {
+
+        if(authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return authService.revokeToken(authHeader.substring(7))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
 }
\ No newline at end of file
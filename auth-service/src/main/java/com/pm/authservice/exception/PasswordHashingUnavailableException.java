@@ -0,0 +1,15 @@
+package com.pm.authservice.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated or too slow to answer in time.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,10 +2,17 @@ package com.pm.authservice.repository;
 
 import com.pm.authservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
   Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+  @Modifying
+  @Query("update User u set u.password = :password where u.id = :id")
+  int updatePassword(@Param("id") UUID id, @Param("password") String password);
+}
@@ -1,12 +1,13 @@
 package com.pm.authservice.service;
 
 import com.pm.authservice.dto.LoginRequestDTO;
+import com.pm.authservice.service.UserService.Credentials;
 import com.pm.authservice.util.JwtUtil;
-import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,43 +15,65 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
+    private final TokenValidator tokenValidator;
+    private final Timer lookupTimer;
+    private final Timer signTimer;
 
-    public AuthService(UserService userService, PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+    public AuthService(UserService userService, PasswordHasher passwordHasher,
+                       JwtUtil jwtUtil, TokenValidator tokenValidator, MeterRegistry meterRegistry) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
+        this.tokenValidator = tokenValidator;
+        // The hash and rehash stages are recorded by PasswordHasher on its own pool
+        this.lookupTimer = Timer.builder("auth.login.stage")
+                .description("Time spent in each stage of a login")
+                .tag("stage", "lookup")
+                .register(meterRegistry);
+        this.signTimer = Timer.builder("auth.login.stage")
+                .tag("stage", "sign")
+                .register(meterRegistry);
     }
 
     public Optional<String> authenticate(LoginRequestDTO loginRequestDTO) {
-        Optional<String> token = userService.findByEmail(loginRequestDTO.getEmail())
-                .filter(u -> passwordEncoder.matches(loginRequestDTO.getPassword(),
-                        u.getPassword()))
-                .map(u -> jwtUtil.generateToken(u.getEmail(), u.getRole()));
+        Optional<Credentials> credentials = lookupTimer.record(
+                () -> userService.findCredentials(loginRequestDTO.getEmail()));
 
-        if (token.isEmpty()) {
+        if (credentials.isEmpty()
+                || !passwordHasher.matches(loginRequestDTO.getPassword(), credentials.get().passwordHash())) {
             log.warn("Authentication failed for user: {}", loginRequestDTO.getEmail());
             return Optional.empty();
         }
-        log.info("Authentication successful for user: {}", loginRequestDTO.getEmail());
-        log.debug("Generated token: {}", token.get());
-        return token;
+
+        Credentials user = credentials.get();
+        if (passwordHasher.needsUpgrade(user.passwordHash())) {
+            passwordHasher.rehash(loginRequestDTO.getPassword(),
+                    passwordHash -> userService.updatePasswordHash(user, passwordHash));
+        }
+
+        String token = signTimer.record(() -> jwtUtil.generateToken(user.email(), user.role()));
+        log.debug("Authentication successful for user: {}", user.email());
+        return Optional.of(token);
     }
 
+    // Called for every request the gateway forwards: no per-call logging on the success path
     public boolean validateToken(String token) {
         if (token == null || token.isEmpty()) {
-            log.warn("Token is null or empty");
             return false;
         }
-        log.debug("Validating token: {}", token);
-        try {
-            jwtUtil.validateToken(token);
-            log.info("Token is valid");
-            return true;
-        } catch (JwtException e){
+        return tokenValidator.isValid(token);
+    }
+
+    public boolean revokeToken(String token) {
+        if (token == null || token.isEmpty()) {
             return false;
         }
+        boolean revoked = tokenValidator.revoke(token);
+        if (revoked) {
+            log.info("Token revoked");
+        }
+        return revoked;
     }
-}
\ No newline at end of file
+}
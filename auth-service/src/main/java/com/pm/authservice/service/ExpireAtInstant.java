@@ -0,0 +1,25 @@
+package com.pm.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Instant;
+
+/**
+ * Caffeine expiry for entries whose value is the instant they stop being meaningful.
+ */
+final class ExpireAtInstant<K> implements Expiry<K, Instant> {
+
+    @Override
+    public long expireAfterCreate(K key, Instant expiresAt, long currentTime) {
+        return Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) * 1_000_000L;
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, Instant expiresAt, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, expiresAt, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(K key, Instant expiresAt, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,31 @@
+package com.pm.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Instant;
+
+/**
+ * Per-instance revocation list. Not bounded by size: dropping an entry would silently un-revoke
+ * a token, so entries only leave when the token expires.
+ */
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    private final Cache<String, Instant> revoked = Caffeine.newBuilder()
+            .expireAfter(new ExpireAtInstant<String>())
+            .build();
+
+    @Override
+    public void revoke(String tokenDigest, Instant expiresAt) {
+        revoked.put(tokenDigest, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenDigest) {
+        return revoked.getIfPresent(tokenDigest) != null;
+    }
+
+    @Override
+    public long size() {
+        return revoked.estimatedSize();
+    }
+}
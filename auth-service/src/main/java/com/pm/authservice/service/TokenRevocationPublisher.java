@@ -0,0 +1,40 @@
+package com.pm.authservice.service;
+
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Announces revocations to the gateways, which verify tokens without calling /validate. Records
+ * are keyed by token digest and carry the token's expiry in epoch milliseconds, after which
+ * nobody needs to remember the revocation.
+ */
+@Component
+@Slf4j
+public class TokenRevocationPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+
+    public TokenRevocationPublisher(KafkaTemplate<String, String> kafkaTemplate,
+                                    @Value("${auth.jwt.revocation.topic:token-revocations}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    public void publish(String tokenDigest, Instant expiresAt) {
+        try {
+            kafkaTemplate.send(topic, tokenDigest, Long.toString(expiresAt.toEpochMilli()))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            log.error("Failed to announce token revocation: {}", e.getMessage());
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // Still revoked for /validate; gateways in local mode accept the token until it expires
+            log.error("Failed to announce token revocation: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pm.authservice.service;
+
+import java.time.Instant;
+
+/**
+ * Backing store for revoked tokens, keyed by token digest. Entries only need to be kept until
+ * the token would have expired anyway. The default implementation is in-memory; define a bean of
+ * this type (e.g. backed by Redis or a database table) to share revocations between replicas.
+ */
+public interface TokenRevocationStore {
+
+    void revoke(String tokenDigest, Instant expiresAt);
+
+    boolean isRevoked(String tokenDigest);
+
+    long size();
+}
@@ -0,0 +1,122 @@
+package com.pm.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pm.authservice.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates tokens for /validate. A token that verified once is remembered by SHA-256 digest
+ * until its own expiry, so the gateway's repeated checks of the same token skip signature
+ * verification. Revocation is checked on every call, cached or not, and announced to the
+ * gateways so tokens they verify locally are rejected too.
+ */
+@Component
+public class TokenValidator {
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationStore revocationStore;
+    private final TokenRevocationPublisher revocationPublisher;
+    private final Cache<String, Instant> validatedTokens;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter validCounter;
+    private final Counter invalidCounter;
+    private final Counter revokedCounter;
+
+    public TokenValidator(JwtUtil jwtUtil, TokenRevocationStore revocationStore,
+                          TokenRevocationPublisher revocationPublisher, MeterRegistry meterRegistry,
+                          @Value("${auth.jwt.cache.max-size:50000}") long maxCacheSize) {
+        this.jwtUtil = jwtUtil;
+        this.revocationStore = revocationStore;
+        this.revocationPublisher = revocationPublisher;
+        this.validatedTokens = Caffeine.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfter(new ExpireAtInstant<String>())
+                .build();
+
+        this.cacheHits = Counter.builder("auth.jwt.cache")
+                .tag("result", "hit")
+                .description("Validated-token cache lookups")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("auth.jwt.cache")
+                .tag("result", "miss")
+                .description("Validated-token cache lookups")
+                .register(meterRegistry);
+        this.validCounter = meterRegistry.counter("auth.jwt.validation", "outcome", "valid");
+        this.invalidCounter = meterRegistry.counter("auth.jwt.validation", "outcome", "invalid");
+        this.revokedCounter = meterRegistry.counter("auth.jwt.validation", "outcome", "revoked");
+        meterRegistry.gauge("auth.jwt.cache.size", validatedTokens, Cache::estimatedSize);
+        meterRegistry.gauge("auth.jwt.revoked.size", revocationStore, TokenRevocationStore::size);
+    }
+
+    public boolean isValid(String token) {
+        String digest = digest(token);
+        if (revocationStore.isRevoked(digest)) {
+            validatedTokens.invalidate(digest);
+            revokedCounter.increment();
+            return false;
+        }
+
+        Instant cachedExpiry = validatedTokens.getIfPresent(digest);
+        if (cachedExpiry != null && cachedExpiry.isAfter(Instant.now())) {
+            cacheHits.increment();
+            validCounter.increment();
+            return true;
+        }
+        cacheMisses.increment();
+
+        try {
+            Instant expiresAt = jwtUtil.validateToken(token);
+            if (expiresAt != null) {
+                validatedTokens.put(digest, expiresAt);
+            }
+            validCounter.increment();
+            return true;
+        } catch (JwtException e) {
+            invalidCounter.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Revokes a currently valid token until its expiry.
+     *
+     * @return false if the token was not valid to begin with
+     */
+    public boolean revoke(String token) {
+        Instant expiresAt;
+        try {
+            expiresAt = jwtUtil.validateToken(token);
+        } catch (JwtException e) {
+            return false;
+        }
+        String digest = digest(token);
+        // Tokens without an expiry stay revoked for as long as the longest token we issue lives
+        Instant revokedUntil = expiresAt != null ? expiresAt : Instant.now().plusSeconds(10 * 60 * 60);
+        revocationStore.revoke(digest, revokedUntil);
+        validatedTokens.invalidate(digest);
+        revocationPublisher.publish(digest, revokedUntil);
+        return true;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
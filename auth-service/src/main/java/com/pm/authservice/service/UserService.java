@@ -1,20 +1,64 @@
 package com.pm.authservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pm.authservice.model.User;
 import com.pm.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    // Only known users are cached, so probing random emails cannot evict real entries
+    private final Cache<String, Credentials> credentialsCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, MeterRegistry meterRegistry,
+                       @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                       @Value("${auth.user-cache.ttl:5m}") Duration ttl) {
         this.userRepository = userRepository;
+        this.credentialsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, credentialsCache, "users");
     }
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
-}
\ No newline at end of file
+
+    /**
+     * Looks up the data a login needs, from the cache when the user logged in recently.
+     */
+    public Optional<Credentials> findCredentials(String email) {
+        Credentials cached = credentialsCache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Credentials> loaded = userRepository.findByEmail(email).map(Credentials::of);
+        loaded.ifPresent(credentials -> credentialsCache.put(email, credentials));
+        return loaded;
+    }
+
+    @Transactional
+    public void updatePasswordHash(Credentials credentials, String passwordHash) {
+        userRepository.updatePassword(credentials.id(), passwordHash);
+        credentialsCache.invalidate(credentials.email());
+    }
+
+    public record Credentials(UUID id, String email, String passwordHash, String role) {
+
+        static Credentials of(User user) {
+            return new Credentials(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+        }
+    }
+}
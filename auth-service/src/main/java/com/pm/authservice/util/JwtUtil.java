@@ -1,11 +1,13 @@
 package com.pm.authservice.util;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
 import javax.crypto.SecretKey;
@@ -16,12 +18,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class JwtUtil {
 
-    private final Key secretKey;
+    private final SecretKey secretKey;
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
 
     public JwtUtil(@Value("${jwt.secret}") String secret) {
         byte[] keyBytes = Base64.getDecoder()
                 .decode(secret.getBytes(StandardCharsets.UTF_8));
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
     }
 
     public String generateToken(String email, String role) {
@@ -34,15 +39,20 @@ public class JwtUtil {
                 .compact();
     }
 
-    public void validateToken(String token) {
+    /**
+     * Verifies the signature and expiry of a token.
+     *
+     * @return the token's expiration, or {@code null} if it has none
+     */
+    public Instant validateToken(String token) {
         try {
-            Jwts.parser().verifyWith((SecretKey) secretKey)
-                    .build()
-                    .parseSignedClaims(token);
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            return expiration != null ? expiration.toInstant() : null;
         } catch (SignatureException e) {
             throw new JwtException("Invalid JWT signature");
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             throw new JwtException("Invalid JWT");
         }
     }
-}
\ No newline at end of file
+}
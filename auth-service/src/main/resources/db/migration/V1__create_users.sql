@@ -0,0 +1,13 @@
+-- Users schema matching com.pm.authservice.model.User (spring.jpa.hibernate.ddl-auto=validate).
+-- IF NOT EXISTS lets the migration baseline databases created by the old data.sql/ddl-auto setup.
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id       UUID PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL
+);
+
+-- Login looks users up by email on every cache miss
+CREATE UNIQUE INDEX IF NOT EXISTS uq_users_email ON users (email);
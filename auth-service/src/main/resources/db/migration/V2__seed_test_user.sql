@@ -0,0 +1,10 @@
+-- Test user for the integration tests and local development (password: password123)
+INSERT INTO users (id, email, password, role)
+SELECT '223e4567-e89b-12d3-a456-426614174006', 'testuser@test.com',
+       '$2b$12$7hoRZfJrRKD2nIm2vHLs7OBETy.LWenXXMLKf99W8M4PUwO6KB7fu', 'ADMIN'
+WHERE NOT EXISTS (
+    SELECT 1
+    FROM users
+    WHERE id = '223e4567-e89b-12d3-a456-426614174006'
+       OR email = 'testuser@test.com'
+);
@@ -0,0 +1,63 @@
+-- Insert throughput and primary-key index size: random UUIDv4 (previous GenerationType.AUTO)
+-- versus time-ordered UUIDv7 (TimeOrderedIdGenerator).
+--
+-- Run against a scratch Postgres database:
+--   psql -v rows=1000000 -f benchmarks/sql/id_strategy.sql
+-- Compare the two "Time:" lines and the index sizes printed at the end.
+
+\if :{?rows}
+\else
+  \set rows 1000000
+\endif
+
+\timing on
+
+-- Same bit layout as UuidV7.next(): 48-bit Unix millis, version 7, variant 10, random tail
+CREATE OR REPLACE FUNCTION bench_uuid_v7() RETURNS uuid AS
+$$
+SELECT encode(
+               set_bit(
+                       set_bit(
+                               overlay(uuid_send(gen_random_uuid())
+                                       placing substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                                       FROM 1 FOR 6),
+                               52, 1),
+                       53, 1),
+               'hex')::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+DROP TABLE IF EXISTS bench_patient_v4;
+DROP TABLE IF EXISTS bench_patient_v7;
+
+CREATE TABLE bench_patient_v4
+(
+    id              UUID PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    address         VARCHAR(255) NOT NULL,
+    birth_date      DATE         NOT NULL,
+    registered_date DATE         NOT NULL
+);
+CREATE TABLE bench_patient_v7 (LIKE bench_patient_v4 INCLUDING ALL);
+
+\echo 'Random UUIDv4 inserts'
+INSERT INTO bench_patient_v4
+SELECT gen_random_uuid(), 'Patient ' || g, 'patient' || g || '@example.com', g || ' Main St, Springfield',
+       DATE '1980-01-01' + (g % 10000), DATE '2024-01-01' + (g % 365)
+FROM generate_series(1, :rows) g;
+
+\echo 'Time-ordered UUIDv7 inserts'
+INSERT INTO bench_patient_v7
+SELECT bench_uuid_v7(), 'Patient ' || g, 'patient' || g || '@example.com', g || ' Main St, Springfield',
+       DATE '1980-01-01' + (g % 10000), DATE '2024-01-01' + (g % 365)
+FROM generate_series(1, :rows) g;
+
+\timing off
+
+SELECT 'v4' AS strategy, pg_size_pretty(pg_relation_size('bench_patient_v4_pkey')) AS pk_index_size
+UNION ALL
+SELECT 'v7', pg_size_pretty(pg_relation_size('bench_patient_v7_pkey'));
+
+DROP TABLE bench_patient_v4;
+DROP TABLE bench_patient_v7;
+DROP FUNCTION bench_uuid_v7();
@@ -0,0 +1,52 @@
+-- Row size and latency of full vs sparse (fields=id,name) patient pages.
+-- Times the keyset queries PatientProjectionRepository issues for GET /patients?fields=... against the
+-- full-row query behind GET /patients, on a wide page, first page and deep into the table.
+--
+-- Run against a scratch database that already has the patient schema and rows, e.g. after
+-- patient_search.sql has generated them:
+--   psql -v page=500 -f benchmarks/sql/patient_projection.sql
+-- Compare execution time and the bytes per row reported at the end.
+
+\if :{?page}
+\else
+  \set page 500
+\endif
+
+ANALYZE patient;
+
+-- A registered_date / id pair halfway through the keyset order, to time a deep page
+SELECT registered_date AS mid_date, id AS mid_id
+FROM patient ORDER BY registered_date, id
+OFFSET (SELECT count(*) / 2 FROM patient) LIMIT 1 \gset
+
+\timing on
+
+\echo 'Full rows, first page'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, email, address, birth_date, registered_date FROM patient
+ORDER BY registered_date, id LIMIT :page + 1;
+
+\echo 'fields=id,name, first page'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, registered_date FROM patient
+ORDER BY registered_date, id LIMIT :page + 1;
+
+\echo 'Full rows, deep page'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, email, address, birth_date, registered_date FROM patient
+WHERE (registered_date, id) > (:'mid_date', :'mid_id')
+ORDER BY registered_date, id LIMIT :page + 1;
+
+\echo 'fields=id,name, deep page'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, registered_date FROM patient
+WHERE (registered_date, id) > (:'mid_date', :'mid_id')
+ORDER BY registered_date, id LIMIT :page + 1;
+
+\timing off
+
+\echo 'Average bytes per row sent to patient-service'
+SELECT round(avg(pg_column_size(ROW (id, name, email, address, birth_date, registered_date)))) AS full_row,
+       round(avg(pg_column_size(ROW (id, name, registered_date))))                             AS id_name_row,
+       round(avg(pg_column_size(ROW (id, name, email, registered_date))))                      AS id_name_email_row
+FROM (SELECT * FROM patient ORDER BY registered_date, id LIMIT :page) p;
@@ -0,0 +1,71 @@
+-- Dataset generator and latency check for GET /patients/search.
+-- Fills the patient table with synthetic rows shaped like the seed migration (realistic first/last names,
+-- name-based emails, street addresses) and times the queries PatientSearchRepository issues.
+--
+-- Run against a scratch database that already has the patient schema and search indexes
+-- (start patient-service against it once):
+--   psql -v rows=3000000 -f benchmarks/sql/patient_search.sql
+-- Each query should report an execution time well under 50 ms.
+
+\if :{?rows}
+\else
+  \set rows 3000000
+\endif
+
+\timing on
+
+\echo 'Generating' :rows 'patients'
+INSERT INTO patient (id, name, email, address, birth_date, registered_date)
+SELECT gen_random_uuid(),
+       first_name || ' ' || last_name,
+       lower(first_name) || '.' || lower(last_name) || g || '@example.com',
+       (g % 999 + 1) || ' ' || street || ' St, ' || city,
+       DATE '1940-01-01' + (g % 25000),
+       DATE '2015-01-01' + (g % 3650)
+FROM generate_series(1, :rows) g
+         CROSS JOIN LATERAL (
+    SELECT (ARRAY ['John', 'Jane', 'Alice', 'Bob', 'Emily', 'Michael', 'Sarah', 'David', 'Laura', 'James',
+                   'Olivia', 'Liam', 'Sophia', 'Daniel', 'Isabella', 'Noah', 'Emma', 'Lucas', 'Mia', 'Ethan',
+                   'Ava', 'Mason', 'Chloe', 'Logan', 'Grace', 'Henry', 'Zoe', 'Jack', 'Lily', 'Owen'])[g % 30 + 1] AS first_name,
+           (ARRAY ['Doe', 'Smith', 'Johnson', 'Brown', 'Davis', 'Wilson', 'Taylor', 'Anderson', 'Thomas', 'Martinez',
+                   'Jackson', 'White', 'Harris', 'Clark', 'Lewis', 'Walker', 'Young', 'Allen', 'King', 'Wright',
+                   'Scott', 'Green', 'Baker', 'Adams', 'Nelson', 'Hill', 'Campbell', 'Mitchell', 'Roberts', 'Carter',
+                   'Phillips', 'Evans', 'Turner', 'Torres', 'Parker', 'Collins', 'Edwards', 'Stewart', 'Morris', 'Murphy'])[(g / 30) % 40 + 1] AS last_name,
+           (ARRAY ['Main', 'Elm', 'Pine', 'Oak', 'Maple', 'Cedar', 'Birch', 'Hickory', 'Cypress', 'Willow',
+                   'Walnut', 'Spruce', 'Ash', 'Chestnut', 'Poplar'])[(g / 7) % 15 + 1] AS street,
+           (ARRAY ['Springfield', 'Shelbyville', 'Capital City', 'Ogdenville', 'North Haverbrook'])[(g / 11) % 5 + 1] AS city
+    ) names;
+
+ANALYZE patient;
+
+\echo 'Prefix, single field'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, email, address, birth_date, registered_date FROM patient
+WHERE lower(name) LIKE 'isabella wa%'
+ORDER BY lower(name), id LIMIT 21 OFFSET 0;
+
+\echo 'Prefix, all fields'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, email, address, birth_date, registered_date FROM patient
+WHERE lower(name) LIKE 'olivia.m%' OR lower(email) LIKE 'olivia.m%' OR lower(address) LIKE 'olivia.m%'
+ORDER BY lower(name), id LIMIT 21 OFFSET 0;
+
+\echo 'Fuzzy, name'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, email, address, birth_date, registered_date FROM patient
+WHERE 'isabela walkr' <% lower(name)
+ORDER BY word_similarity('isabela walkr', lower(name)) DESC, id LIMIT 21 OFFSET 0;
+
+\echo 'Text, multi-field'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, email, address, birth_date, registered_date FROM patient
+WHERE to_tsvector('simple', name || ' ' || email || ' ' || address) @@ to_tsquery('simple', 'zoe:* & carter:* & shelby:*')
+ORDER BY ts_rank(to_tsvector('simple', name || ' ' || email || ' ' || address),
+                 to_tsquery('simple', 'zoe:* & carter:* & shelby:*')) DESC, id LIMIT 21 OFFSET 0;
+
+\timing off
+
+SELECT indexrelname, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+FROM pg_stat_user_indexes
+WHERE relname = 'patient'
+ORDER BY indexrelname;
@@ -0,0 +1,32 @@
+package com.pm.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line, but writes JSON results to
+ * {@code jmh-result.json} unless {@code -rf}/{@code -rff} are given, so runs can be diffed across commits.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = commandLine;
+        if (!commandLine.getResultFormat().hasValue() && !commandLine.getResult().hasValue()) {
+            options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result.json")
+                    .build();
+        }
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.pm.benchmarks;
+
+import com.pm.authservice.service.InMemoryTokenRevocationStore;
+import com.pm.authservice.service.TokenValidator;
+import com.pm.authservice.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    // Same secret the CDK stack hands to auth-service
+    private static final String SECRET = "Y2hhVEc3aHJnb0hYTzMyZ2ZqVkpiZ1RkZG93YWxrUkM=";
+
+    @Param({"16", "96"})
+    int fieldLength;
+
+    private JwtUtil jwtUtil;
+    private TokenValidator tokenValidator;
+    private String email;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET);
+        email = PatientFixtures.pad("user", fieldLength - "@test.com".length()) + "@test.com";
+        token = jwtUtil.generateToken(email, "ADMIN");
+        // Only revoke() publishes, and nothing here revokes
+        tokenValidator = new TokenValidator(jwtUtil, new InMemoryTokenRevocationStore(), null,
+                new SimpleMeterRegistry(), 10_000);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(email, "ADMIN");
+    }
+
+    @Benchmark
+    public String validateToken() {
+        jwtUtil.validateToken(token);
+        return token;
+    }
+
+    // What /validate does for a token the gateway has already presented once
+    @Benchmark
+    public boolean validateCached() {
+        return tokenValidator.isValid(token);
+    }
+}
@@ -0,0 +1,60 @@
+package com.pm.benchmarks;
+
+import com.pm.authservice.config.SecurityConfig;
+import com.pm.authservice.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of a successful login once the user lookup is a cache hit: password check plus token
+ * signing. Runs single-threaded, so the score is logins per second per core for each encoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String SECRET = "Y2hhVEc3aHJnb0hYTzMyZ2ZqVkpiZ1RkZG93YWxrUkM=";
+    private static final String PASSWORD = "password123";
+
+    // encoder:cost, matching auth.password.encoder / auth.password.bcrypt-strength
+    @Param({"bcrypt:8", "bcrypt:10", "bcrypt:12", "pbkdf2:0"})
+    String encoding;
+
+    private PasswordEncoder passwordEncoder;
+    private JwtUtil jwtUtil;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        String[] parts = encoding.split(":");
+        passwordEncoder = new SecurityConfig().passwordEncoder(parts[0], Math.max(4, Integer.parseInt(parts[1])));
+        passwordHash = passwordEncoder.encode(PASSWORD);
+        jwtUtil = new JwtUtil(SECRET);
+    }
+
+    @Benchmark
+    public String login() {
+        if (!passwordEncoder.matches(PASSWORD, passwordHash)) {
+            throw new IllegalStateException("Password did not match");
+        }
+        return jwtUtil.generateToken("testuser@test.com", "ADMIN");
+    }
+}
@@ -0,0 +1,60 @@
+package com.pm.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import patient.events.PatientEvent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientEventSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int batchSize;
+
+    @Param({"16", "96"})
+    int fieldLength;
+
+    private List<PatientEvent> events;
+    private byte[][] payloads;
+
+    @Setup
+    public void setUp() {
+        events = PatientFixtures.events(batchSize, fieldLength);
+        payloads = new byte[events.size()][];
+        for (int i = 0; i < events.size(); i++) {
+            payloads[i] = events.get(i).toByteArray();
+        }
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) {
+        for (PatientEvent event : events) {
+            blackhole.consume(event.toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws InvalidProtocolBufferException {
+        for (byte[] payload : payloads) {
+            blackhole.consume(PatientEvent.parseFrom(payload));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.pm.benchmarks;
+
+import app.dto.PatientRequestDTO;
+import app.model.Patient;
+import patient.events.PatientEvent;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deterministic patient payloads shaped like the seeded patient rows. {@code fieldLength} stretches the
+ * free-text fields; names are capped at the 30 characters PatientRequestDTO allows.
+ */
+final class PatientFixtures {
+
+    private static final Date BIRTH_DATE = Date.from(LocalDate.of(1985, 6, 15).atStartOfDay(ZoneOffset.UTC).toInstant());
+    private static final Date REGISTERED_DATE = Date.from(LocalDate.of(2024, 1, 10).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+    private PatientFixtures() {
+    }
+
+    static List<PatientRequestDTO> dtos(int batchSize, int fieldLength) {
+        List<PatientRequestDTO> dtos = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            dtos.add(new PatientRequestDTO(new UUID(0L, i),
+                    pad("Patient " + i, Math.min(fieldLength, 30)),
+                    "patient" + i + "@example.com",
+                    pad(i + " Main St, Springfield", fieldLength),
+                    BIRTH_DATE,
+                    REGISTERED_DATE));
+        }
+        return dtos;
+    }
+
+    static List<Patient> patients(int batchSize, int fieldLength) {
+        List<Patient> patients = new ArrayList<>(batchSize);
+        for (PatientRequestDTO dto : dtos(batchSize, fieldLength)) {
+            Patient patient = new Patient();
+            patient.setId(dto.getId());
+            patient.setName(dto.getName());
+            patient.setEmail(dto.getEmail());
+            patient.setAddress(dto.getAddress());
+            patient.setBirthDate(dto.getBirthDate());
+            patient.setRegisteredDate(dto.getRegisteredDate());
+            patients.add(patient);
+        }
+        return patients;
+    }
+
+    static List<PatientEvent> events(int batchSize, int fieldLength) {
+        List<PatientEvent> events = new ArrayList<>(batchSize);
+        for (PatientRequestDTO dto : dtos(batchSize, fieldLength)) {
+            events.add(PatientEvent.newBuilder()
+                    .setPatientId(dto.getId().toString())
+                    .setName(dto.getName())
+                    .setEmail(dto.getEmail())
+                    .setEventType("PATIENT_CREATED")
+                    .build());
+        }
+        return events;
+    }
+
+    static String pad(String value, int length) {
+        if (value.length() >= length) {
+            return value.substring(0, Math.max(length, 3));
+        }
+        return value + "x".repeat(length - value.length());
+    }
+}
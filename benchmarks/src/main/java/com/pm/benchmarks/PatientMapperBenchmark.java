@@ -0,0 +1,60 @@
+package com.pm.benchmarks;
+
+import app.dto.PatientRequestDTO;
+import app.mapper.PatientMapper;
+import app.mapper.PatientMapperImpl;
+import app.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientMapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int batchSize;
+
+    @Param({"16", "96"})
+    int fieldLength;
+
+    private final PatientMapper mapper = new PatientMapperImpl();
+    private List<Patient> patients;
+    private List<PatientRequestDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        patients = PatientFixtures.patients(batchSize, fieldLength);
+        dtos = PatientFixtures.dtos(batchSize, fieldLength);
+    }
+
+    @Benchmark
+    public void toPatientDTO(Blackhole blackhole) {
+        for (Patient patient : patients) {
+            blackhole.consume(mapper.toPatientDTO(patient));
+        }
+    }
+
+    @Benchmark
+    public void toPatient(Blackhole blackhole) {
+        for (PatientRequestDTO dto : dtos) {
+            blackhole.consume(mapper.toPatient(dto));
+        }
+    }
+}
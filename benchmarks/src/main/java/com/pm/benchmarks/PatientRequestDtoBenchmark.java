@@ -0,0 +1,93 @@
+package com.pm.benchmarks;
+
+import app.dto.PatientRequestDTO;
+import app.dto.validators.CreatePatientValidationGroup;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.groups.Default;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round-trips and Bean Validation of PatientRequestDTO lists, with the ObjectMapper
+ * configured like patient-service's (yyyy-MM-dd, UTC, parameter-names module).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientRequestDtoBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int batchSize;
+
+    @Param({"16", "96"})
+    int fieldLength;
+
+    private List<PatientRequestDTO> dtos;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] json;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .setTimeZone(TimeZone.getTimeZone("UTC"));
+        dtos = PatientFixtures.dtos(batchSize, fieldLength);
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, PatientRequestDTO.class));
+        reader = objectMapper.readerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, PatientRequestDTO.class));
+        json = writer.writeValueAsBytes(dtos);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public List<PatientRequestDTO> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (PatientRequestDTO dto : dtos) {
+            blackhole.consume(validator.validate(dto, Default.class, CreatePatientValidationGroup.class));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.pm.benchmarks;
+
+import app.dto.PatientPageDTO;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
+import app.dto.PatientRequestDTO;
+import app.helper.PatientProtos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.luben.zstd.Zstd;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import patient.api.PatientPage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A page of patients as patient-service sends it: JSON through Jackson or application/x-protobuf
+ * through PatientProtos, raw and with the gzip (Tomcat's default level) and zstd (level 3) encodings.
+ * Serialization includes the DTO-to-message mapping, as the HTTP converter does it per response.
+ * The pick list is the same page as {@code fields=id,name} returns it.
+ * <p>
+ * Bytes on the wire for each combination are printed once per trial, before the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientWireFormatBenchmark {
+
+    private static final int ZSTD_LEVEL = 3;
+
+    @Param({"1", "50", "500"})
+    int pageSize;
+
+    @Param({"16", "96"})
+    int fieldLength;
+
+    private PatientPageDTO page;
+    private PatientProjectionPageDTO pickList;
+    private ObjectWriter writer;
+    private ObjectWriter pickListWriter;
+    private ObjectReader reader;
+    private byte[] json;
+    private byte[] protobuf;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .setTimeZone(TimeZone.getTimeZone("UTC"));
+        List<PatientRequestDTO> patients = PatientFixtures.dtos(pageSize, fieldLength);
+        page = new PatientPageDTO(patients, "eyJsYXN0SWQiOiIwMTk3In0");
+        writer = objectMapper.writerFor(PatientPageDTO.class);
+        reader = objectMapper.readerFor(PatientPageDTO.class);
+        json = writer.writeValueAsBytes(page);
+        protobuf = PatientProtos.toProto(page).toByteArray();
+        // What GET /patients?fields=id,name returns for the same page
+        pickList = new PatientProjectionPageDTO(patients.stream()
+                .map(patient -> {
+                    Map<String, Object> fields = new LinkedHashMap<>();
+                    fields.put("id", patient.getId());
+                    fields.put("name", patient.getName());
+                    return new PatientProjectionDTO(fields);
+                })
+                .toList(), page.getNextPageToken());
+        pickListWriter = objectMapper.writerFor(PatientProjectionPageDTO.class);
+
+        byte[] pickListJson = pickListWriter.writeValueAsBytes(pickList);
+        byte[] pickListProtobuf = PatientProtos.toProto(pickList).toByteArray();
+
+        System.out.printf("%n[wire] pageSize=%d fieldLength=%d json=%d json+gzip=%d json+zstd=%d "
+                        + "protobuf=%d protobuf+gzip=%d protobuf+zstd=%d id,name:json=%d id,name:protobuf=%d%n",
+                pageSize, fieldLength,
+                json.length, gzip(json).length, Zstd.compress(json, ZSTD_LEVEL).length,
+                protobuf.length, gzip(protobuf).length, Zstd.compress(protobuf, ZSTD_LEVEL).length,
+                pickListJson.length, pickListProtobuf.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] jsonSerializeGzip() throws IOException {
+        return gzip(writer.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public byte[] jsonSerializeZstd() throws IOException {
+        return Zstd.compress(writer.writeValueAsBytes(page), ZSTD_LEVEL);
+    }
+
+    @Benchmark
+    public byte[] jsonSerializePickList() throws IOException {
+        return pickListWriter.writeValueAsBytes(pickList);
+    }
+
+    @Benchmark
+    public byte[] protobufSerialize() {
+        return PatientProtos.toProto(page).toByteArray();
+    }
+
+    @Benchmark
+    public PatientPageDTO jsonDeserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public PatientPage protobufParse() throws IOException {
+        return PatientPage.parseFrom(protobuf);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
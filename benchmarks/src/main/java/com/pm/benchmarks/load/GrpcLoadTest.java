@@ -0,0 +1,249 @@
+package com.pm.benchmarks.load;
+
+import billing.BillingBatchRequest;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import com.pm.benchmarks.load.LoadResult.LatencyRecorder;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop gRPC load test against a running billing-service. Each of {@code concurrency}
+ * clients creates accounts for fresh patients back to back, so accounts/sec and p99 show how well
+ * the store's group commit amortises transactions as concurrency grows:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.pm.benchmarks.load.GrpcLoadTest \
+ *     scenario=create-account target=localhost:9001 concurrency=200 duration=60 label=group-commit
+ * </pre>
+ * Scenarios: {@code create-account} (unary CreateBillingAccount), {@code create-accounts}
+ * (CreateBillingAccounts with {@code batch} patients per call) and {@code sync-accounts}
+ * (one SyncBillingAccounts stream per client, sending whenever the stream is ready). Latency is
+ * per call, or from send to acknowledgement for streams; {@code itemsPerSec} counts accounts.
+ * Streams need far fewer clients for the same load, e.g. {@code concurrency=4}.
+ * Clients share {@code channels} connections.
+ * One JSON line per run is appended to {@code load-result.jsonl}.
+ */
+public final class GrpcLoadTest {
+
+    private GrpcLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = HttpLoadTest.parse(args);
+        String scenario = options.getOrDefault("scenario", "create-account");
+        String target = options.getOrDefault("target", "localhost:9001");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        int channelCount = Integer.parseInt(options.getOrDefault("channels", "4"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "50"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        String label = options.getOrDefault("label", "unlabelled");
+
+        List<ManagedChannel> channels = new ArrayList<>(channelCount);
+        for (int i = 0; i < channelCount; i++) {
+            channels.add(ManagedChannelBuilder.forTarget(target).usePlaintext().build());
+        }
+        try {
+            AtomicLong accounts = new AtomicLong();
+            LoadResult result;
+            if (scenario.equals("sync-accounts")) {
+                runStreams(channels, concurrency, warmup, null, new AtomicLong());
+                result = runStreams(channels, concurrency, duration, new LoadResult(), accounts);
+            } else {
+                run(channels, scenario, batch, concurrency, warmup, null, new AtomicLong());
+                result = run(channels, scenario, batch, concurrency, duration, new LoadResult(), accounts);
+            }
+            String json = result.toJson(label, scenario, concurrency, duration, accounts.get());
+            System.out.println(json);
+            Files.writeString(Path.of(options.getOrDefault("out", "load-result.jsonl")), json + System.lineSeparator(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } finally {
+            channels.forEach(ManagedChannel::shutdownNow);
+        }
+    }
+
+    private static LoadResult run(List<ManagedChannel> channels, String scenario, int batch, int concurrency,
+                                  Duration duration, LoadResult result, AtomicLong accounts) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] workers = new Future<?>[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                BillingServiceGrpc.BillingServiceBlockingStub stub =
+                        BillingServiceGrpc.newBlockingStub(channels.get(i % channels.size()));
+                workers[i] = clients.submit(() -> {
+                    LatencyRecorder latencies = new LatencyRecorder();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        int created;
+                        try {
+                            created = call(stub.withDeadlineAfter(30, TimeUnit.SECONDS), scenario, batch);
+                        } catch (StatusRuntimeException e) {
+                            created = -1;
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        if (result != null) {
+                            latencies.record(elapsed);
+                            if (created < 0) {
+                                result.error();
+                            } else {
+                                accounts.addAndGet(created);
+                            }
+                        }
+                    }
+                    if (result != null) {
+                        result.merge(latencies);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return result;
+    }
+
+    private static LoadResult runStreams(List<ManagedChannel> channels, int concurrency, Duration duration,
+                                         LoadResult result, AtomicLong accounts) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] workers = new Future<?>[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                ManagedChannel channel = channels.get(i % channels.size());
+                workers[i] = clients.submit(() -> {
+                    SyncStream stream = new SyncStream();
+                    BillingServiceGrpc.newStub(channel).syncBillingAccounts(stream);
+                    while (System.nanoTime() < deadline && stream.awaitReady()) {
+                        stream.send(request());
+                    }
+                    stream.finish();
+                    if (result != null) {
+                        result.merge(stream.latencies);
+                        for (long f = 0; f < stream.failed; f++) {
+                            result.error();
+                        }
+                        accounts.addAndGet(stream.acknowledged - stream.failed);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return result;
+    }
+
+    private static int call(BillingServiceGrpc.BillingServiceBlockingStub stub, String scenario, int batch) {
+        return switch (scenario) {
+            case "create-account" -> {
+                stub.createBillingAccount(request());
+                yield 1;
+            }
+            case "create-accounts" -> {
+                BillingBatchRequest.Builder request = BillingBatchRequest.newBuilder();
+                for (int i = 0; i < batch; i++) {
+                    request.addRequests(request());
+                }
+                yield stub.createBillingAccounts(request.build()).getResponsesCount();
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+    }
+
+    private static BillingRequest request() {
+        String patientId = UUID.randomUUID().toString();
+        return BillingRequest.newBuilder()
+                .setPatientId(patientId)
+                .setName("Load " + patientId.substring(0, 8))
+                .setEmail("load-" + patientId + "@example.com")
+                .build();
+    }
+
+    /**
+     * One SyncBillingAccounts stream. Send times are kept per patient so each acknowledgement can
+     * be timed; the recorder is only touched by the response callback until the stream is done.
+     */
+    private static final class SyncStream implements ClientResponseObserver<BillingRequest, BillingResponse> {
+
+        private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private final Semaphore readySignal = new Semaphore(0);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private ClientCallStreamObserver<BillingRequest> requestStream;
+        private long acknowledged;
+        private long failed;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<BillingRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(readySignal::release);
+        }
+
+        boolean awaitReady() throws InterruptedException {
+            while (!requestStream.isReady()) {
+                if (done.getCount() == 0) {
+                    return false;
+                }
+                readySignal.tryAcquire(100, TimeUnit.MILLISECONDS);
+            }
+            return done.getCount() > 0;
+        }
+
+        void send(BillingRequest request) {
+            sentAt.put(request.getPatientId(), System.nanoTime());
+            requestStream.onNext(request);
+        }
+
+        void finish() throws InterruptedException {
+            if (done.getCount() > 0) {
+                requestStream.onCompleted();
+            }
+            done.await(60, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void onNext(BillingResponse response) {
+            Long start = sentAt.remove(response.getPatientId());
+            if (start != null) {
+                latencies.record(System.nanoTime() - start);
+            }
+            acknowledged++;
+            if (response.getStatus().equals("FAILED")) {
+                failed++;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failed += sentAt.size();
+            done.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            done.countDown();
+        }
+    }
+}
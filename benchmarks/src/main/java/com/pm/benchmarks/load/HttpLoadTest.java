@@ -0,0 +1,150 @@
+package com.pm.benchmarks.load;
+
+import com.pm.benchmarks.load.LoadResult.LatencyRecorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load test against a running patient-service or auth-service. Each of
+ * {@code concurrency} clients sends its next request as soon as the previous one completes, so
+ * throughput and tail latency show where the server's thread model saturates.
+ * <p>
+ * Run the service once with {@code VIRTUAL_THREADS_ENABLED=false} and once with {@code true},
+ * using the same arguments and a different {@code label}:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.pm.benchmarks.load.HttpLoadTest \
+ *     scenario=create-patient url=http://localhost:4000 concurrency=400 duration=60 label=platform
+ * </pre>
+ * Scenarios: {@code create-patient} (POST /patients: JDBC, outbox insert, billing hand-off),
+ * {@code list-patients} (GET /patients), {@code list-patients-wide} / {@code list-patients-sparse}
+ * (500-row pages, all fields or {@code fields=id,name}) and {@code login} (POST /login on auth-service).
+ * One JSON line per run is appended to {@code load-result.jsonl}.
+ */
+public final class HttpLoadTest {
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String scenario = options.getOrDefault("scenario", "create-patient");
+        URI baseUrl = URI.create(options.getOrDefault("url", "http://localhost:4000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        String label = options.getOrDefault("label", "unlabelled");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        run(client, baseUrl, scenario, concurrency, warmup, null);
+        LoadResult result = run(client, baseUrl, scenario, concurrency, duration, new LoadResult());
+        String json = result.toJson(label, scenario, concurrency, duration);
+        System.out.println(json);
+        Files.writeString(Path.of(options.getOrDefault("out", "load-result.jsonl")), json + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static LoadResult run(HttpClient client, URI baseUrl, String scenario, int concurrency,
+                                  Duration duration, LoadResult result) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        // Driver threads are virtual so the client side never becomes the bottleneck
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] workers = new Future<?>[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                workers[i] = clients.submit(() -> {
+                    LatencyRecorder latencies = new LatencyRecorder();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = request(baseUrl, scenario);
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        if (result != null) {
+                            latencies.record(elapsed);
+                            if (status < 200 || status >= 300) {
+                                result.error();
+                            }
+                        }
+                    }
+                    if (result != null) {
+                        result.merge(latencies);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return result;
+    }
+
+    private static HttpRequest request(URI baseUrl, String scenario) {
+        return switch (scenario) {
+            case "create-patient" -> {
+                String unique = UUID.randomUUID().toString();
+                String body = """
+                        {"name":"Load %s","email":"load-%s@example.com","address":"1 Load Street",\
+                        "birthDate":"1990-01-01","registeredDate":"2024-01-01"}""".formatted(unique.substring(0, 8), unique);
+                yield json(baseUrl.resolve("/patients"), body);
+            }
+            case "list-patients" -> HttpRequest.newBuilder(baseUrl.resolve("/patients?size=20"))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            // 500-row pages with every field vs the id,name projection
+            case "list-patients-wide" -> HttpRequest.newBuilder(baseUrl.resolve("/patients?size=500"))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            case "list-patients-sparse" -> HttpRequest.newBuilder(baseUrl.resolve("/patients?size=500&fields=id,name"))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            case "login" -> json(baseUrl.resolve("/login"),
+                    "{\"email\":\"testuser@test.com\",\"password\":\"password123\"}");
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+    }
+
+    private static HttpRequest json(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,68 @@
+package com.pm.benchmarks.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and errors of one measured load-test run, merged from every client and written as a
+ * single JSON line.
+ */
+final class LoadResult {
+
+    private final AtomicLong errors = new AtomicLong();
+    private long[] latencies = new long[0];
+
+    void error() {
+        errors.incrementAndGet();
+    }
+
+    synchronized void merge(LatencyRecorder recorder) {
+        long[] merged = Arrays.copyOf(latencies, latencies.length + recorder.size);
+        System.arraycopy(recorder.values, 0, merged, latencies.length, recorder.size);
+        latencies = merged;
+    }
+
+    synchronized String toJson(String label, String scenario, int concurrency, Duration duration) {
+        return toJson(label, scenario, concurrency, duration, latencies.length);
+    }
+
+    /**
+     * @param items work items completed, when one request carries several (e.g. a batch RPC)
+     */
+    synchronized String toJson(String label, String scenario, int concurrency, Duration duration, long items) {
+        Arrays.sort(latencies);
+        return String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"scenario\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,"
+                        + "\"throughputPerSec\":%.1f,\"itemsPerSec\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+                label, scenario, concurrency, latencies.length, errors.get(),
+                latencies.length / (double) duration.toSeconds(),
+                items / (double) duration.toSeconds(),
+                percentile(0.50), percentile(0.99), percentile(1.0));
+    }
+
+    private double percentile(double quantile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * latencies.length) - 1;
+        return latencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Per-client latencies in nanoseconds; kept unsynchronized and merged once at the end.
+     */
+    static final class LatencyRecorder {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+    }
+}
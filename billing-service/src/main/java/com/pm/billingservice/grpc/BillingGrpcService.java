@@ -1,33 +1,257 @@
 package com.pm.billingservice.grpc;
 
+import billing.BillingBatchRequest;
+import billing.BillingBatchResponse;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
+import com.pm.billingservice.model.BillingAccount;
+import com.pm.billingservice.service.BillingAccountService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 
 @GrpcService
 @Slf4j
-@RequiredArgsConstructor
 public class BillingGrpcService extends BillingServiceGrpc.BillingServiceImplBase {
 
+    private static final String FAILED = "FAILED";
+
+    private final BillingAccountService billingAccountService;
+    private final int syncWindow;
+
+    public BillingGrpcService(BillingAccountService billingAccountService,
+                              @Value("${billing.sync.window:1000}") int syncWindow) {
+        this.billingAccountService = billingAccountService;
+        this.syncWindow = syncWindow;
+    }
 
     @Override
     public void createBillingAccount(BillingRequest billingRequest,
                                      StreamObserver<BillingResponse> responseObserver) {
 
-        log.info("createBillingAccount request received {}", billingRequest.toString());
+        log.debug("createBillingAccount request received for patient {}", billingRequest.getPatientId());
+
+        BillingAccount account;
+        try {
+            account = toAccount(billingRequest);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        // Completes on the store's writer thread once the group holding this create commits
+        billingAccountService.createAccount(account.patientId(), account.name(), account.email())
+                .whenComplete((stored, failure) -> {
+                    if (failure != null) {
+                        responseObserver.onError(toStatus(failure).asRuntimeException());
+                        return;
+                    }
+                    responseObserver.onNext(toResponse(stored));
+                    responseObserver.onCompleted();
+                });
+    }
+
+    @Override
+    public void createBillingAccounts(BillingBatchRequest batchRequest,
+                                      StreamObserver<BillingBatchResponse> responseObserver) {
+
+        log.debug("createBillingAccounts request received for {} patients", batchRequest.getRequestsCount());
+
+        List<BillingAccount> accounts = new ArrayList<>(batchRequest.getRequestsCount());
+        try {
+            for (BillingRequest billingRequest : batchRequest.getRequestsList()) {
+                accounts.add(toAccount(billingRequest));
+            }
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        billingAccountService.createAccounts(accounts)
+                .whenComplete((stored, failure) -> {
+                    if (failure != null) {
+                        responseObserver.onError(toStatus(failure).asRuntimeException());
+                        return;
+                    }
+                    BillingBatchResponse.Builder response = BillingBatchResponse.newBuilder();
+                    stored.forEach(account -> response.addResponses(toResponse(account)));
+                    responseObserver.onNext(response.build());
+                    responseObserver.onCompleted();
+                });
+    }
+
+    @Override
+    public StreamObserver<BillingRequest> syncBillingAccounts(StreamObserver<BillingResponse> responseObserver) {
+        return new SyncStream((ServerCallStreamObserver<BillingResponse>) responseObserver, syncWindow);
+    }
 
-        // Business logic - e.g save to database, perform calculates etc
+    private static BillingAccount toAccount(BillingRequest billingRequest) {
+        UUID patientId;
+        try {
+            patientId = UUID.fromString(billingRequest.getPatientId());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("patientId must be a UUID: " + billingRequest.getPatientId());
+        }
+        return new BillingAccount(null, patientId, billingRequest.getName(), billingRequest.getEmail(), null);
+    }
 
-        BillingResponse response = BillingResponse.newBuilder()
-                .setAccountId("12345")
-                .setStatus("ACTIVE")
+    private static BillingResponse toResponse(BillingAccount account) {
+        return BillingResponse.newBuilder()
+                .setAccountId(account.id().toString())
+                .setStatus(account.status())
+                .setPatientId(account.patientId().toString())
                 .build();
+    }
+
+    // Creates are idempotent per patient, so overload and database failures are safe for the
+    // client to retry and are reported as UNAVAILABLE
+    private static Status toStatus(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return Status.UNAVAILABLE.withDescription(cause.getMessage());
+        }
+        if (cause instanceof DataAccessException) {
+            return Status.UNAVAILABLE.withDescription("Billing account store unavailable").withCause(cause);
+        }
+        return Status.INTERNAL.withDescription(cause.getMessage()).withCause(cause);
+    }
+
+    /**
+     * Server side of one SyncBillingAccounts stream. At most {@code window} requests are in the
+     * store at once: a request is only pulled from the client once an earlier one has been
+     * answered and the response stream is ready. A client that stops reading therefore stops
+     * the flow of requests instead of letting responses pile up here.
+     */
+    private final class SyncStream implements StreamObserver<BillingRequest> {
+
+        private final ServerCallStreamObserver<BillingResponse> responseObserver;
+        // Guards the response observer, which is not thread-safe, and the counters below. Responses
+        // are sent from the store's writer thread, requests arrive on the call's executor.
+        private final ReentrantLock lock = new ReentrantLock();
+        private int inFlight;
+        private int deferredRequests;
+        private boolean halfClosed;
+        private boolean finished;
+
+        SyncStream(ServerCallStreamObserver<BillingResponse> responseObserver, int window) {
+            this.responseObserver = responseObserver;
+            responseObserver.disableAutoRequest();
+            responseObserver.setOnReadyHandler(this::onReady);
+            responseObserver.setOnCancelHandler(() -> {
+                lock.lock();
+                try {
+                    finished = true;
+                } finally {
+                    lock.unlock();
+                }
+            });
+            responseObserver.request(window);
+        }
+
+        @Override
+        public void onNext(BillingRequest billingRequest) {
+            lock.lock();
+            try {
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+
+            BillingAccount account;
+            try {
+                account = toAccount(billingRequest);
+            } catch (IllegalArgumentException e) {
+                respond(failed(billingRequest));
+                return;
+            }
+            billingAccountService.createAccount(account.patientId(), account.name(), account.email())
+                    .whenComplete((stored, failure) -> {
+                        if (failure != null) {
+                            log.warn("Sync of billing account for patient {} failed: {}",
+                                    billingRequest.getPatientId(), failure.getMessage());
+                            respond(failed(billingRequest));
+                        } else {
+                            respond(toResponse(stored));
+                        }
+                    });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // Client cancelled or the transport failed; outstanding creates still complete, their
+            // responses are dropped
+            log.debug("SyncBillingAccounts stream closed by client: {}", t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            lock.lock();
+            try {
+                halfClosed = true;
+                completeIfDrained();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void respond(BillingResponse response) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (finished) {
+                    return;
+                }
+                responseObserver.onNext(response);
+                // Pull the next request only while the client keeps up with responses
+                if (responseObserver.isReady()) {
+                    responseObserver.request(1);
+                } else {
+                    deferredRequests++;
+                }
+                completeIfDrained();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onReady() {
+            lock.lock();
+            try {
+                if (deferredRequests > 0 && !finished) {
+                    responseObserver.request(deferredRequests);
+                    deferredRequests = 0;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void completeIfDrained() {
+            if (halfClosed && inFlight == 0 && !finished) {
+                finished = true;
+                responseObserver.onCompleted();
+            }
+        }
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+        private BillingResponse failed(BillingRequest billingRequest) {
+            return BillingResponse.newBuilder()
+                    .setPatientId(billingRequest.getPatientId())
+                    .setStatus(FAILED)
+                    .build();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+package com.pm.billingservice.model;
+
+import java.util.UUID;
+
+public record BillingAccount(UUID id, UUID patientId, String name, String email, String status) {
+}
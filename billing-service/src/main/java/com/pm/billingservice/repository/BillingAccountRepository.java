@@ -0,0 +1,73 @@
+package com.pm.billingservice.repository;
+
+import com.pm.billingservice.model.BillingAccount;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public class BillingAccountRepository {
+
+    // One statement per group however large: the rows travel as three arrays
+    private static final String INSERT_MISSING = """
+            INSERT INTO billing_account (patient_id, name, email)
+            SELECT * FROM unnest(?::uuid[], ?::varchar[], ?::varchar[])
+            ON CONFLICT (patient_id) DO NOTHING""";
+
+    private static final String FIND_BY_PATIENT_IDS = """
+            SELECT id, patient_id, name, email, status
+            FROM billing_account
+            WHERE patient_id = ANY(?::uuid[])""";
+
+    private static final RowMapper<BillingAccount> ROW_MAPPER = (rs, rowNum) -> new BillingAccount(
+            rs.getObject("id", UUID.class),
+            rs.getObject("patient_id", UUID.class),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getString("status"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillingAccountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts an account for every patient that has none yet; patients that already have one
+     * are left untouched. Each patient must appear at most once.
+     *
+     * @return the number of accounts created
+     */
+    public int insertMissing(List<BillingAccount> accounts) {
+        UUID[] patientIds = new UUID[accounts.size()];
+        String[] names = new String[accounts.size()];
+        String[] emails = new String[accounts.size()];
+        for (int i = 0; i < accounts.size(); i++) {
+            BillingAccount account = accounts.get(i);
+            patientIds[i] = account.patientId();
+            names[i] = account.name();
+            emails[i] = account.email();
+        }
+        return jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(INSERT_MISSING);
+            statement.setArray(1, connection.createArrayOf("uuid", patientIds));
+            statement.setArray(2, connection.createArrayOf("varchar", names));
+            statement.setArray(3, connection.createArrayOf("varchar", emails));
+            return statement;
+        });
+    }
+
+    public List<BillingAccount> findByPatientIds(Collection<UUID> patientIds) {
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(FIND_BY_PATIENT_IDS);
+            Array ids = connection.createArrayOf("uuid", patientIds.toArray());
+            statement.setArray(1, ids);
+            return statement;
+        }, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,188 @@
+package com.pm.billingservice.service;
+
+import com.pm.billingservice.model.BillingAccount;
+import com.pm.billingservice.repository.BillingAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates billing accounts, at most one per patient. A single writer group-commits every create
+ * that arrived while the previous transaction was in flight, so concurrent callers share one
+ * insert, one lookup and one commit instead of paying a WAL flush each.
+ */
+@Service
+@Slf4j
+public class BillingAccountService {
+
+    private final BillingAccountRepository billingAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingCreate> queue;
+    private final int maxGroupSize;
+    private final long lingerNanos;
+
+    private final Timer commitTimer;
+    private final Timer queueWaitTimer;
+    private final DistributionSummary groupSizeSummary;
+    private final Counter createdCounter;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public BillingAccountService(BillingAccountRepository billingAccountRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${billing.store.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${billing.store.max-group-size:500}") int maxGroupSize,
+                                 @Value("${billing.store.linger-ms:0}") long lingerMs) {
+        this.billingAccountRepository = billingAccountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxGroupSize = maxGroupSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+
+        this.commitTimer = Timer.builder("billing.store.commit")
+                .description("Time to insert, read back and commit one group of billing accounts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("billing.store.queue.wait")
+                .description("Time a create waits for the writer before its group starts")
+                .register(meterRegistry);
+        this.groupSizeSummary = DistributionSummary.builder("billing.store.group.size")
+                .description("Creates committed per transaction")
+                .register(meterRegistry);
+        this.createdCounter = meterRegistry.counter("billing.store.accounts.created");
+        meterRegistry.gauge("billing.store.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = Thread.ofPlatform().daemon(true).name("billing-store-writer").start(this::writeLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Returns the patient's billing account, creating it first if the patient has none. The
+     * future fails with {@link RejectedExecutionException} when the writer is too far behind.
+     */
+    public CompletableFuture<BillingAccount> createAccount(UUID patientId, String name, String email) {
+        PendingCreate pending = new PendingCreate(new BillingAccount(null, patientId, name, email, null),
+                System.nanoTime(), new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            pending.result().completeExceptionally(
+                    new RejectedExecutionException("Billing account store is overloaded"));
+        }
+        return pending.result();
+    }
+
+    /**
+     * {@link #createAccount} for several patients; the accounts come back in request order.
+     */
+    public CompletableFuture<List<BillingAccount>> createAccounts(List<BillingAccount> accounts) {
+        List<CompletableFuture<BillingAccount>> results = new ArrayList<>(accounts.size());
+        for (BillingAccount account : accounts) {
+            results.add(createAccount(account.patientId(), account.name(), account.email()));
+        }
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    private void writeLoop() {
+        List<PendingCreate> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (group.size() < maxGroupSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: commit whatever is already queued without lingering
+                queue.drainTo(group);
+            }
+
+            if (!group.isEmpty()) {
+                commit(group);
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingCreate> group) {
+        long now = System.nanoTime();
+        // A patient may be queued more than once (client retries); the first create wins
+        Map<UUID, BillingAccount> byPatient = new LinkedHashMap<>();
+        for (PendingCreate pending : group) {
+            queueWaitTimer.record(now - pending.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            byPatient.putIfAbsent(pending.account().patientId(), pending.account());
+        }
+        groupSizeSummary.record(group.size());
+
+        Map<UUID, BillingAccount> stored = new LinkedHashMap<>();
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                createdCounter.increment(billingAccountRepository.insertMissing(new ArrayList<>(byPatient.values())));
+                // A separate statement sees rows another instance committed concurrently as well
+                for (BillingAccount account : billingAccountRepository.findByPatientIds(byPatient.keySet())) {
+                    stored.put(account.patientId(), account);
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.error("Failed to commit {} billing accounts", group.size(), e);
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+
+        for (PendingCreate pending : group) {
+            BillingAccount account = stored.get(pending.account().patientId());
+            if (account != null) {
+                pending.result().complete(account);
+            } else {
+                pending.result().completeExceptionally(new IllegalStateException(
+                        "No billing account for patient " + pending.account().patientId() + " after commit"));
+            }
+        }
+    }
+
+    private record PendingCreate(BillingAccount account, long enqueuedAtNanos,
+                                 CompletableFuture<BillingAccount> result) {
+    }
+}
@@ -0,0 +1,14 @@
+-- One billing account per patient. The unique patient_id is what makes account creation
+-- idempotent: replays and retries of CreateBillingAccount resolve to the existing row.
+
+CREATE TABLE IF NOT EXISTS billing_account
+(
+    id         UUID PRIMARY KEY     DEFAULT gen_random_uuid(),
+    patient_id UUID        NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    status     VARCHAR(32)  NOT NULL DEFAULT 'ACTIVE',
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_billing_account_patient_id ON billing_account (patient_id);
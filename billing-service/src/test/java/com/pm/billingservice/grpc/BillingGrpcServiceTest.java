@@ -0,0 +1,130 @@
+package com.pm.billingservice.grpc;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import com.pm.billingservice.model.BillingAccount;
+import com.pm.billingservice.service.BillingAccountService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BillingGrpcServiceTest {
+
+    private final BillingAccountService billingAccountService = mock(BillingAccountService.class);
+    private final List<CompletableFuture<BillingAccount>> pending = new CopyOnWriteArrayList<>();
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void syncAnswersEveryRequestAndMarksInvalidOnesFailed() throws Exception {
+        start(1000, false);
+        List<BillingResponse> responses = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<BillingRequest> requests = BillingServiceGrpc.newStub(channel)
+                .syncBillingAccounts(collect(responses, completed));
+
+        for (int i = 0; i < 50; i++) {
+            requests.onNext(request(UUID.randomUUID().toString()));
+        }
+        requests.onNext(request("not-a-uuid"));
+        requests.onCompleted();
+
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(responses).hasSize(51);
+        assertThat(responses).filteredOn(response -> response.getStatus().equals("FAILED"))
+                .extracting(BillingResponse::getPatientId).containsExactly("not-a-uuid");
+    }
+
+    @Test
+    void syncKeepsAtMostTheWindowInTheStore() throws Exception {
+        start(2, true);
+        List<BillingResponse> responses = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<BillingRequest> requests = BillingServiceGrpc.newStub(channel)
+                .syncBillingAccounts(collect(responses, completed));
+
+        for (int i = 0; i < 10; i++) {
+            requests.onNext(request(UUID.randomUUID().toString()));
+        }
+        requests.onCompleted();
+
+        // Only the window reaches the store until earlier creates are answered
+        Thread.sleep(200);
+        assertThat(pending).hasSize(2);
+
+        while (responses.size() < 10) {
+            pending.stream().filter(future -> !future.isDone()).forEach(this::completeWithAccount);
+            Thread.sleep(10);
+        }
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(pending).hasSize(10);
+    }
+
+    private void start(int window, boolean holdCreates) throws IOException {
+        when(billingAccountService.createAccount(any(), anyString(), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<BillingAccount> result = new CompletableFuture<>();
+            pending.add(result);
+            if (!holdCreates) {
+                completeWithAccount(result);
+            }
+            return result;
+        });
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new BillingGrpcService(billingAccountService, window))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    private void completeWithAccount(CompletableFuture<BillingAccount> future) {
+        future.complete(new BillingAccount(UUID.randomUUID(), UUID.randomUUID(), "Name", "mail@example.com", "ACTIVE"));
+    }
+
+    private static BillingRequest request(String patientId) {
+        return BillingRequest.newBuilder().setPatientId(patientId).setName("Name").setEmail("mail@example.com").build();
+    }
+
+    private static StreamObserver<BillingResponse> collect(List<BillingResponse> responses, CountDownLatch completed) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(BillingResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.pm.billingservice.service;
+
+import com.pm.billingservice.model.BillingAccount;
+import com.pm.billingservice.repository.BillingAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class BillingAccountServiceTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private BillingAccountService billingAccountService;
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE billing_account");
+        // A short linger makes the grouping below deterministic rather than timing-dependent
+        billingAccountService = new BillingAccountService(new BillingAccountRepository(jdbcTemplate),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), meterRegistry,
+                10_000, 500, 50);
+        billingAccountService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        billingAccountService.stop();
+    }
+
+    @Test
+    void creatingTwiceReturnsTheSameAccount() {
+        UUID patientId = UUID.randomUUID();
+
+        BillingAccount first = billingAccountService.createAccount(patientId, "Jane", "jane@example.com").join();
+        BillingAccount second = billingAccountService.createAccount(patientId, "Jane Doe", "jane@example.com").join();
+
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(second.name()).isEqualTo("Jane");
+        assertThat(first.status()).isEqualTo("ACTIVE");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_account", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCreatesShareOneCommit() {
+        UUID duplicated = UUID.randomUUID();
+        List<CompletableFuture<BillingAccount>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            UUID patientId = i % 50 == 0 ? duplicated : UUID.randomUUID();
+            results.add(billingAccountService.createAccount(patientId, "Patient " + i, "p" + i + "@example.com"));
+        }
+
+        List<BillingAccount> accounts = results.stream().map(CompletableFuture::join).toList();
+
+        assertThat(accounts).extracting(BillingAccount::id).doesNotContainNull();
+        assertThat(accounts).filteredOn(account -> account.patientId().equals(duplicated))
+                .extracting(BillingAccount::id).containsOnly(accounts.get(0).id());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM billing_account", Integer.class))
+                .isEqualTo(197);
+        assertThat(meterRegistry.get("billing.store.commit").timer().count()).isLessThan(200);
+        assertThat(meterRegistry.get("billing.store.accounts.created").counter().count()).isEqualTo(197);
+    }
+
+    @Test
+    void batchComesBackInRequestOrder() {
+        List<BillingAccount> requested = List.of(
+                new BillingAccount(null, UUID.randomUUID(), "A", "a@example.com", null),
+                new BillingAccount(null, UUID.randomUUID(), "B", "b@example.com", null),
+                new BillingAccount(null, UUID.randomUUID(), "C", "c@example.com", null));
+
+        List<BillingAccount> stored = billingAccountService.createAccounts(requested).join();
+
+        assertThat(stored).extracting(BillingAccount::patientId)
+                .containsExactlyElementsOf(requested.stream().map(BillingAccount::patientId).toList());
+    }
+}
@@ -39,6 +39,9 @@ import software.amazon.awscdk.services.rds.PostgresInstanceEngineProps;
 import software.amazon.awscdk.services.route53.CfnHealthCheck;
 
 public class LocalStack extends Stack {
+    private static final String KAFKA_BOOTSTRAP_SERVERS =
+            "localhost.localstack.cloud:4510, localhost.localstack.cloud:4511, localhost.localstack.cloud:4512";
+
     private final Vpc vpc;
     private final Cluster ecsCluster;
 
@@ -53,12 +56,18 @@ public class LocalStack extends Stack {
         DatabaseInstance patientServiceDb =
                 createDatabase("PatientServiceDB", "patient-service-db");
 
+        DatabaseInstance billingServiceDb =
+                createDatabase("BillingServiceDB", "billing-service-db");
+
         CfnHealthCheck authDbHealthCheck =
                 createDbHealthCheck(authServiceDb, "AuthServiceDBHealthCheck");
 
         CfnHealthCheck patientDbHealthCheck =
                 createDbHealthCheck(patientServiceDb, "PatientServiceDBHealthCheck");
 
+        CfnHealthCheck billingDbHealthCheck =
+                createDbHealthCheck(billingServiceDb, "BillingServiceDBHealthCheck");
+
         CfnCluster mskCluster = createMskCluster();
 
         this.ecsCluster = createEcsCluster();
@@ -77,9 +86,12 @@ public class LocalStack extends Stack {
                 createFargateService("BillingService",
                         "billing-service",
                         List.of(4001,9001),
-                        null,
+                        billingServiceDb,
                         null);
 
+        billingService.getNode().addDependency(billingDbHealthCheck);
+        billingService.getNode().addDependency(billingServiceDb);
+
         FargateService analyticsService =
                 createFargateService("AnalyticsService",
                         "analytics-service",
@@ -197,7 +209,7 @@ public class LocalStack extends Stack {
                                 .build()));
 
         Map<String, String> envVars = new HashMap<>();
-        envVars.put("SPRING_KAFKA_BOOTSTRAP_SERVERS", "localhost.localstack.cloud:4510, localhost.localstack.cloud:4511, localhost.localstack.cloud:4512");
+        envVars.put("SPRING_KAFKA_BOOTSTRAP_SERVERS", KAFKA_BOOTSTRAP_SERVERS);
 
         if(additionalEnvVars != null){
             envVars.putAll(additionalEnvVars);
@@ -212,8 +224,8 @@ public class LocalStack extends Stack {
             envVars.put("SPRING_DATASOURCE_USERNAME", "admin_user");
             envVars.put("SPRING_DATASOURCE_PASSWORD",
                     db.getSecret().secretValueFromJson("password").toString());
-            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "update");
-            envVars.put("SPRING_SQL_INIT_MODE", "always");
+            // Schema comes from each service's Flyway migrations
+            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "validate");
             envVars.put("SPRING_DATASOURCE_HIKARI_INITIALIZATION_FAIL_TIMEOUT", "60000");
         }
 
@@ -240,7 +252,10 @@ public class LocalStack extends Stack {
                         .image(ContainerImage.fromRegistry("api-gateway"))
                         .environment(Map.of(
                                 "SPRING_PROFILES_ACTIVE", "prod",
-                                "AUTH_SERVICE_URL", "http://host.docker.internal:4005"
+                                "AUTH_SERVICE_URL", "http://host.docker.internal:4005",
+                                "JWT_SECRET", "Y2hhVEc3aHJnb0hYTzMyZ2ZqVkpiZ1RkZG93YWxrUkM=",
+                                // Patient events invalidate the response cache
+                                "SPRING_KAFKA_BOOTSTRAP_SERVERS", KAFKA_BOOTSTRAP_SERVERS
                         ))
                         .portMappings(List.of(4004).stream()
                                 .map(port -> PortMapping.builder()
@@ -0,0 +1,127 @@
+package app.cache;
+
+import app.dto.PatientRequestDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded near cache of patients by id. Entries expire after a TTL as a safety net; coherence
+ * comes from explicit eviction on local writes and on PATIENT_UPDATED / PATIENT_DELETED events
+ * published by any replica.
+ * <p>
+ * A read that loaded a row before a write committed must not cache it after the write's eviction.
+ * Every eviction bumps a generation for the id's stripe, and a loaded entry whose stripe moved on
+ * while it was loading is dropped again. Ids sharing a stripe only cost each other a cache miss.
+ */
+@Component
+@Slf4j
+public class PatientCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<UUID, PatientRequestDTO> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public PatientCache(MeterRegistry meterRegistry,
+                        @Value("${patient.cache.max-size:10000}") long maxSize,
+                        @Value("${patient.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "patients");
+    }
+
+    public Optional<PatientRequestDTO> get(UUID id, Function<UUID, Optional<PatientRequestDTO>> loader) {
+        PatientRequestDTO cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = generation(id);
+        // Misses are not cached, so a patient created on another replica is visible immediately
+        Optional<PatientRequestDTO> loaded = loader.apply(id);
+        loaded.ifPresent(patient -> putIfCurrent(id, patient, generation));
+        return loaded;
+    }
+
+    public PatientRequestDTO getIfPresent(UUID id) {
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Batch form of {@link #get}: ids not cached are handed to {@code loader} in one call, and ids
+     * the loader does not return are absent from the result.
+     */
+    public Map<UUID, PatientRequestDTO> getAll(Collection<UUID> ids,
+                                               Function<Set<UUID>, Map<UUID, PatientRequestDTO>> loader) {
+        Map<UUID, PatientRequestDTO> found = new HashMap<>(cache.getAllPresent(ids));
+        Set<UUID> missing = new HashSet<>(ids);
+        missing.removeAll(found.keySet());
+        if (!missing.isEmpty()) {
+            Map<UUID, Long> generations = new HashMap<>();
+            missing.forEach(id -> generations.put(id, generation(id)));
+            Map<UUID, PatientRequestDTO> loaded = loader.apply(missing);
+            loaded.forEach((id, patient) -> putIfCurrent(id, patient, generations.get(id)));
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    public void evict(UUID id) {
+        // Bumped before invalidating: a load that saw the old generation then drops its own put
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    /**
+     * Evicts now and again once the surrounding transaction commits, so a concurrent read
+     * cannot re-cache the pre-commit row after the write.
+     */
+    public void evictAfterCommit(UUID id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    // Put first, then check: an eviction either moved the generation before the check, and the
+    // entry is dropped here, or it invalidates after the put and drops the entry itself
+    private void putIfCurrent(UUID id, PatientRequestDTO patient, long loadedAtGeneration) {
+        cache.put(id, patient);
+        if (generation(id) != loadedAtGeneration) {
+            cache.invalidate(id);
+        }
+    }
+
+    private long generation(UUID id) {
+        return generations.get(stripe(id));
+    }
+
+    private static int stripe(UUID id) {
+        return Math.floorMod(id.hashCode(), GENERATION_STRIPES);
+    }
+}
@@ -1,19 +1,39 @@
 package app.controller;
 
+import app.dto.BulkImportResultDTO;
+import app.dto.PatientBatchResultDTO;
+import app.dto.PatientPageDTO;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
 import app.dto.PatientRequestDTO;
+import app.dto.PatientSearchResultDTO;
 import app.dto.validators.CreatePatientValidationGroup;
 import app.exception.EmailAlreadyExistsException;
+import app.helper.PatientETags;
+import app.helper.PatientImportReader;
+import app.helper.PatientProtos;
+import app.service.PatientImportService;
+import app.service.PatientSearchService;
 import app.service.PatientService;
+import app.web.PatientProtobufHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 import java.util.UUID;
@@ -24,14 +44,77 @@ import java.util.UUID;
 @Tag(name = "Patient Management", description = "Operations related to patient management")
 public class PatientController {
     private static final Logger log = LoggerFactory.getLogger(PatientController.class);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final PatientSearchService patientSearchService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "Get all patients", description = "Retrieves a list of all registered patients")
-    public ResponseEntity<List<PatientRequestDTO>> getAllPatients() {
-        log.info("Retrieving all patients");
-        List<PatientRequestDTO> patients = patientService.getAllPatients();
-        return ResponseEntity.ok(patients);
+    @Operation(summary = "Get all patients", description = "Retrieves a page of registered patients; pass nextPageToken back as pageToken to continue")
+    public ResponseEntity<PatientPageDTO> getAllPatients(@RequestParam(required = false) String pageToken,
+                                                         @RequestParam(required = false) Integer size) {
+        log.info("Retrieving patients page");
+        PatientPageDTO page = patientService.getAllPatients(pageToken, size);
+        // A matching If-None-Match is answered 304 by Spring before the body is serialized. The weak ETag is
+        // the same for JSON and protobuf, so Vary keeps caches from answering one with the other
+        return ResponseEntity.ok().eTag(PatientETags.of(page)).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    @GetMapping(params = "fields")
+    @Operation(summary = "Get all patients, selected fields only",
+            description = "Like getAllPatients, but each patient holds only the comma-separated fields "
+                    + "(id, name, email, address, birthDate, registeredDate) and only those columns are read")
+    public ResponseEntity<PatientProjectionPageDTO> getAllPatientsProjected(@RequestParam(required = false) String pageToken,
+                                                                            @RequestParam(required = false) Integer size,
+                                                                            @RequestParam List<String> fields) {
+        log.info("Retrieving patients page with fields {}", fields);
+        PatientProjectionPageDTO page = patientService.getAllPatients(pageToken, size, fields);
+        return ResponseEntity.ok().eTag(PatientETags.of(page)).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    @GetMapping(value = "/export", produces = {"application/x-ndjson", "application/x-protobuf"})
+    @Operation(summary = "Export all patients",
+            description = "Streams every patient as newline-delimited JSON, or as length-delimited patient.api.Patient "
+                    + "messages when application/x-protobuf is preferred in Accept")
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (prefersProtobuf(accept)) {
+            log.info("Exporting all patients as protobuf");
+            StreamingResponseBody body = out -> patientService.streamAllPatients(patient -> {
+                try {
+                    // Varint length prefix per message, readable with Patient.parseDelimitedFrom
+                    PatientProtos.toProto(patient).writeDelimitedTo(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return ResponseEntity.ok().contentType(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF).body(body);
+        }
+        log.info("Exporting all patients");
+        ObjectWriter writer = objectMapper.writerFor(PatientRequestDTO.class);
+        StreamingResponseBody body = out -> patientService.streamAllPatients(patient -> {
+            try {
+                out.write(writer.writeValueAsBytes(patient));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search patients",
+            description = "Searches name, email and address. mode: prefix (default), fuzzy (typo tolerant) or text "
+                    + "(every word prefix-matches any field); in: fields to match for prefix/fuzzy")
+    public ResponseEntity<PatientSearchResultDTO> searchPatients(@RequestParam String q,
+                                                                 @RequestParam(required = false) String mode,
+                                                                 @RequestParam(name = "in", required = false) List<String> fields,
+                                                                 @RequestParam(required = false) Integer page,
+                                                                 @RequestParam(required = false) Integer size) {
+        log.info("Searching patients");
+        PatientSearchResultDTO result = patientSearchService.search(q, mode, fields, page, size);
+        return ResponseEntity.ok().eTag(PatientETags.of(result)).varyBy(HttpHeaders.ACCEPT).body(result);
     }
 
     @GetMapping("/{id}")
@@ -39,13 +122,36 @@ public class PatientController {
     public ResponseEntity<PatientRequestDTO> getPatientById(@PathVariable UUID id) {
         log.info("Retrieving patient with id: {}", id);
         return patientService.getPatientById(id)
-                .map(ResponseEntity::ok)
+                .map(patient -> ResponseEntity.ok().eTag(PatientETags.of(patient)).varyBy(HttpHeaders.ACCEPT).body(patient))
                 .orElseGet(() -> {
                     log.warn("Patient not found with id: {}", id);
                     return ResponseEntity.notFound().build();
                 });
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    @Operation(summary = "Get patient by ID, selected fields only",
+            description = "Like getPatientById, but the patient holds only the comma-separated fields")
+    public ResponseEntity<PatientProjectionDTO> getPatientByIdProjected(@PathVariable UUID id,
+                                                                        @RequestParam List<String> fields) {
+        log.info("Retrieving patient with id: {} and fields {}", id, fields);
+        return patientService.getPatientById(id, fields)
+                .map(patient -> ResponseEntity.ok().eTag(PatientETags.of(patient)).varyBy(HttpHeaders.ACCEPT).body(patient))
+                .orElseGet(() -> {
+                    log.warn("Patient not found with id: {}", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    @PostMapping(value = "/batch-get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get patients by IDs",
+            description = "Looks up a JSON array of patient IDs with one query. Found patients and missing IDs are "
+                    + "returned in request order; use the gRPC PatientService.StreamPatients for very large batches")
+    public ResponseEntity<PatientBatchResultDTO> getPatientsByIds(@RequestBody List<UUID> ids) {
+        log.info("Retrieving {} patients by id", ids.size());
+        return ResponseEntity.ok(patientService.getPatientsByIds(ids));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new patient", description = "Registers a new patient in the system")
     public ResponseEntity<PatientRequestDTO> createPatient(@Validated({Default.class, CreatePatientValidationGroup.class}) @RequestBody PatientRequestDTO patientRequestDTO) throws EmailAlreadyExistsException {
@@ -55,6 +161,25 @@ public class PatientController {
                 .body(createdPatient);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Bulk import patients", description = "Imports a JSON array of patients and returns a per-row result report")
+    public ResponseEntity<BulkImportResultDTO> importPatients(@RequestBody List<PatientRequestDTO> patients) {
+        log.info("Bulk importing {} patients", patients.size());
+        return ResponseEntity.ok(patientImportService.importPatients(patients));
+    }
+
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk import patients from a stream",
+            description = "Imports newline-delimited JSON or CSV (header: name,email,address,birthDate,registeredDate) without buffering the upload")
+    public ResponseEntity<BulkImportResultDTO> importPatientStream(@RequestHeader("Content-Type") MediaType contentType,
+                                                                   InputStream body) {
+        log.info("Bulk importing patients from {} stream", contentType);
+        boolean csv = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        return ResponseEntity.ok(patientImportService.importRows(csv
+                ? PatientImportReader.csv(body)
+                : PatientImportReader.ndjson(body, objectMapper)));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update patient information", description = "Updates the details of an existing patient")
     public ResponseEntity<PatientRequestDTO> updatePatient(@PathVariable UUID id,
@@ -83,4 +208,21 @@ public class PatientController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    // Two mappings that differ only in produces would be ambiguous for Accept: */*, so NDJSON stays the default here
+    private static boolean prefersProtobuf(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        double protobuf = 0;
+        double ndjson = 0;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.equalsTypeAndSubtype(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF)) {
+                protobuf = Math.max(protobuf, type.getQualityValue());
+            } else if (type.includes(APPLICATION_NDJSON)) {
+                ndjson = Math.max(ndjson, type.getQualityValue());
+            }
+        }
+        return protobuf > ndjson;
+    }
+}
@@ -0,0 +1,16 @@
+package app.dto;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Value
+public class BulkImportResultDTO implements Serializable {
+
+    int created;
+
+    int rejected;
+
+    List<BulkImportRowResultDTO> rows;
+}
@@ -0,0 +1,26 @@
+package app.dto;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of a single row in a bulk patient import. {@code row} is 1-based in upload order.
+ */
+@Value
+public class BulkImportRowResultDTO implements Serializable {
+
+    public enum Status { CREATED, INVALID, DUPLICATE }
+
+    int row;
+
+    Status status;
+
+    UUID id;
+
+    String email;
+
+    Map<String, String> errors;
+}
@@ -0,0 +1,19 @@
+package app.dto;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a lookup by ids. Both lists follow the order of the requested ids, with repeated ids
+ * listed once.
+ */
+@Value
+public class PatientBatchResultDTO implements Serializable {
+
+    List<PatientRequestDTO> patients;
+
+    List<UUID> missingIds;
+}
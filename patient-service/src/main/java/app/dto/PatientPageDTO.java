@@ -0,0 +1,17 @@
+package app.dto;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A single keyset page of patients. {@code nextPageToken} is null on the last page.
+ */
+@Value
+public class PatientPageDTO implements Serializable {
+
+    List<PatientRequestDTO> patients;
+
+    String nextPageToken;
+}
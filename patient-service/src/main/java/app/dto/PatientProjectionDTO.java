@@ -0,0 +1,37 @@
+package app.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A patient reduced to the fields a {@code fields=} request asked for, serialized as a JSON object
+ * with only those properties. Keys are PatientRequestDTO property names.
+ */
+public class PatientProjectionDTO implements Serializable {
+
+    private final Map<String, Object> fields;
+
+    public PatientProjectionDTO(Map<String, Object> fields) {
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    public Object get(String property) {
+        return fields.get(property);
+    }
+
+    public PatientProjectionDTO retain(Collection<String> properties) {
+        Map<String, Object> retained = new LinkedHashMap<>(fields);
+        retained.keySet().retainAll(properties);
+        return new PatientProjectionDTO(retained);
+    }
+}
@@ -0,0 +1,17 @@
+package app.dto;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * {@link PatientPageDTO} for {@code fields=} requests. {@code nextPageToken} is null on the last page.
+ */
+@Value
+public class PatientProjectionPageDTO implements Serializable {
+
+    List<PatientProjectionDTO> patients;
+
+    String nextPageToken;
+}
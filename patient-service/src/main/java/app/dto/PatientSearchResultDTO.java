@@ -0,0 +1,21 @@
+package app.dto;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of search hits, best match first.
+ */
+@Value
+public class PatientSearchResultDTO implements Serializable {
+
+    List<PatientRequestDTO> patients;
+
+    int page;
+
+    int size;
+
+    boolean hasMore;
+}
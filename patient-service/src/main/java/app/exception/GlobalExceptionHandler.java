@@ -33,6 +33,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(value = InvalidPageTokenException.class)
+    public ResponseEntity<Map<String, String>> handleException(InvalidPageTokenException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(value = InvalidSearchQueryException.class)
+    public ResponseEntity<Map<String, String>> handleException(InvalidSearchQueryException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(value = InvalidBatchRequestException.class)
+    public ResponseEntity<Map<String, String>> handleException(InvalidBatchRequestException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(value = InvalidFieldSelectionException.class)
+    public ResponseEntity<Map<String, String>> handleException(InvalidFieldSelectionException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(PatientNotFoundException.class)
     public ResponseEntity<Map<String, String>> handlePatientNotFoundException(
             PatientNotFoundException ex) {
@@ -0,0 +1,252 @@
+package app.grpc;
+
+import app.repository.PatientBillingRepository;
+import billing.BillingBatchResponse;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes billing account creation off the patient-create path. Requests are queued once the
+ * surrounding transaction commits and a single worker coalesces them into CreateBillingAccounts
+ * batch RPCs, retrying timed-out batches with exponential backoff. UNAVAILABLE is left to the
+ * channel's own retry policy (see {@link BillingChannelPool#serviceConfig}) so a batch is never retried
+ * on two layers at once. When the queue is full the request is dropped rather than sent on the
+ * caller's thread. Accounts billing-service
+ * confirms are recorded on the patient; anything lost here is picked up by {@link BillingReconciliationJob}.
+ */
+@Component
+@Slf4j
+public class BillingAccountBatcher {
+
+    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final PatientBillingRepository patientBillingRepository;
+    private final BlockingQueue<PendingAccount> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final boolean virtualThreads;
+
+    private final Timer queueWaitTimer;
+    private final Timer rpcTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public BillingAccountBatcher(BillingServiceGrpcClient billingServiceGrpcClient,
+                                 PatientBillingRepository patientBillingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${billing.batch.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${billing.batch.max-size:100}") int maxBatchSize,
+                                 @Value("${billing.batch.linger-ms:20}") long lingerMs,
+                                 @Value("${billing.batch.max-attempts:5}") int maxAttempts,
+                                 @Value("${billing.batch.initial-backoff-ms:100}") long initialBackoffMs,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.billingServiceGrpcClient = billingServiceGrpcClient;
+        this.patientBillingRepository = patientBillingRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.virtualThreads = virtualThreads;
+
+        this.queueWaitTimer = Timer.builder("billing.batch.queue.wait")
+                .description("Time a billing request spends queued before its batch is sent")
+                .register(meterRegistry);
+        this.rpcTimer = Timer.builder("billing.batch.rpc")
+                .description("CreateBillingAccounts round-trip time, including retries")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("billing.batch.size")
+                .register(meterRegistry);
+        this.retryCounter = meterRegistry.counter("billing.batch.retries");
+        this.failedCounter = meterRegistry.counter("billing.batch.failed");
+        this.droppedCounter = meterRegistry.counter("billing.batch.dropped");
+        meterRegistry.gauge("billing.batch.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        Thread.Builder builder = virtualThreads
+                ? Thread.ofVirtual()
+                : Thread.ofPlatform().daemon(true);
+        worker = builder.name("billing-batcher").start(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a billing account for creation. Inside a transaction the request is only queued
+     * after commit, so rolled-back patients never get an account.
+     */
+    public void submit(String patientId, String name, String email) {
+        submitAll(List.of(BillingRequest.newBuilder()
+                .setPatientId(patientId)
+                .setName(name)
+                .setEmail(email)
+                .build()));
+    }
+
+    public void submitAll(List<BillingRequest> requests) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requests.forEach(BillingAccountBatcher.this::enqueue);
+                }
+            });
+        } else {
+            requests.forEach(this::enqueue);
+        }
+    }
+
+    private void enqueue(BillingRequest request) {
+        if (!queue.offer(new PendingAccount(request, System.nanoTime()))) {
+            // Queue is full: never make the patient create wait on billing; reconciliation creates the account later
+            droppedCounter.increment();
+            log.warn("Billing batch queue full, leaving the account for patient {} to reconciliation",
+                    request.getPatientId());
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingAccount> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAccount first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger briefly so concurrent creates share one RPC
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingAccount next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: flush whatever is already queued without lingering
+                queue.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    dispatch(batch);
+                } catch (RuntimeException e) {
+                    // This is the only worker; losing it would strand everything queued behind this batch
+                    failedCounter.increment(batch.size());
+                    log.error("Billing batch of {} failed unexpectedly; leaving it to reconciliation",
+                            batch.size(), e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<PendingAccount> batch) {
+        long now = System.nanoTime();
+        List<BillingRequest> requests = new ArrayList<>(batch.size());
+        for (PendingAccount pending : batch) {
+            queueWaitTimer.record(now - pending.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            requests.add(pending.request());
+        }
+        batchSizeSummary.record(requests.size());
+        sendWithRetry(requests);
+    }
+
+    private void sendWithRetry(List<BillingRequest> requests) {
+        Timer.Sample sample = Timer.start();
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                BillingBatchResponse response = billingServiceGrpcClient.createBillingAccounts(requests);
+                sample.stop(rpcTimer);
+                confirm(response);
+                return;
+            } catch (StatusRuntimeException e) {
+                if (!isRetryable(e) || attempt == maxAttempts) {
+                    log.error("Billing batch of {} failed (attempt {}/{}): {}",
+                            requests.size(), attempt, maxAttempts, e.getStatus());
+                    break;
+                }
+                retryCounter.increment();
+                log.warn("Billing batch of {} failed (attempt {}/{}): {}; retrying in {} ms",
+                        requests.size(), attempt, maxAttempts, e.getStatus(), backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMs *= 2;
+            }
+        }
+        sample.stop(rpcTimer);
+        failedCounter.increment(requests.size());
+        log.error("Giving up on billing accounts for {} patients", requests.size());
+    }
+
+    // Only failures a later attempt can fix. UNAVAILABLE reaches here after the channel has already
+    // spent its own retries on it, and retrying again would multiply the load on an overloaded server
+    private static boolean isRetryable(StatusRuntimeException e) {
+        return e.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED;
+    }
+
+    private void confirm(BillingBatchResponse response) {
+        Map<UUID, UUID> confirmed = new HashMap<>();
+        for (BillingResponse account : response.getResponsesList()) {
+            UUID accountId = BillingServiceGrpcClient.confirmedAccountId(account);
+            if (accountId != null) {
+                confirmed.put(UUID.fromString(account.getPatientId()), accountId);
+            }
+        }
+        try {
+            patientBillingRepository.confirm(confirmed);
+        } catch (DataAccessException e) {
+            // The accounts exist; reconciliation re-sends these patients and records them then
+            log.warn("Could not record {} confirmed billing accounts: {}", confirmed.size(), e.getMessage());
+        }
+    }
+
+    private record PendingAccount(BillingRequest request, long enqueuedAtNanos) {
+    }
+}
@@ -0,0 +1,136 @@
+package app.grpc;
+
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of channels to billing-service, handed out round-robin per call. Each channel
+ * resolves every billing-service instance through DNS and balances across them with the
+ * round_robin policy; several channels spread calls over more HTTP/2 connections than the
+ * per-connection concurrent stream limit allows. Retry or hedging comes from the service config.
+ */
+@Component
+@Slf4j
+public class BillingChannelPool {
+
+    private static final String SERVICE_NAME = "BillingService";
+    // Streams are left out: replaying or hedging a long reconciliation stream would only duplicate it
+    private static final List<Map<String, String>> UNARY_METHODS = List.of(
+            Map.of("service", SERVICE_NAME, "method", "CreateBillingAccount"),
+            Map.of("service", SERVICE_NAME, "method", "CreateBillingAccounts"));
+
+    private final List<ManagedChannel> channels;
+    private final List<Channel> interceptedChannels;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Autowired
+    public BillingChannelPool(
+//            These take value from env variables
+            @Value("${billing.service.address:localhost}") String serverAddress,
+            @Value("${billing.service.grpc.port:9001}") int serverPort,
+            @Value("${billing.grpc.pool-size:4}") int poolSize,
+            @Value("${billing.grpc.keepalive-time-ms:30000}") long keepAliveTimeMs,
+            @Value("${billing.grpc.keepalive-timeout-ms:10000}") long keepAliveTimeoutMs,
+            @Value("${billing.grpc.max-attempts:3}") int maxAttempts,
+            @Value("${billing.grpc.hedging-delay-ms:0}") long hedgingDelayMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        this(poolSize, () -> {
+            ManagedChannelBuilder<?> builder = ManagedChannelBuilder
+                    .forTarget("dns:///" + serverAddress + ":" + serverPort)
+                    .usePlaintext()
+                    .defaultLoadBalancingPolicy("round_robin")
+                    .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS);
+            if (virtualThreads) {
+                // Blocking stub calls already park the calling (virtual) thread; this moves the
+                // channel's callbacks off gRPC's shared cached platform pool as well
+                builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+            }
+            return builder;
+        }, serviceConfig(maxAttempts, hedgingDelayMs), meterRegistry);
+        log.info("Connecting to Billing Service GRPC service at {}:{} with {} channels",
+                serverAddress, serverPort, poolSize);
+    }
+
+    public BillingChannelPool(int poolSize, Supplier<ManagedChannelBuilder<?>> channelBuilder,
+                              Map<String, ?> serviceConfig, MeterRegistry meterRegistry) {
+        GrpcClientMetricsInterceptor metrics = new GrpcClientMetricsInterceptor(meterRegistry);
+        this.channels = new ArrayList<>(poolSize);
+        this.interceptedChannels = new ArrayList<>(poolSize);
+        for (int i = 0; i < Math.max(1, poolSize); i++) {
+            ManagedChannel channel = channelBuilder.get()
+                    .defaultServiceConfig(serviceConfig)
+                    .enableRetry()
+                    .build();
+            channels.add(channel);
+            interceptedChannels.add(ClientInterceptors.intercept(channel, metrics));
+        }
+    }
+
+    public Channel next() {
+        return interceptedChannels.get(Math.floorMod(next.getAndIncrement(), interceptedChannels.size()));
+    }
+
+    public int size() {
+        return channels.size();
+    }
+
+    /**
+     * Retries UNAVAILABLE with exponential backoff, or, when a hedging delay is set, sends up to
+     * {@code maxAttempts} copies of a call {@code hedgingDelayMs} apart and keeps the first answer.
+     * Both are safe only because account creation is idempotent per patientId.
+     */
+    public static Map<String, ?> serviceConfig(int maxAttempts, long hedgingDelayMs) {
+        Map<String, Object> methodConfig;
+        if (hedgingDelayMs > 0) {
+            methodConfig = Map.of(
+                    "name", UNARY_METHODS,
+                    "hedgingPolicy", Map.of(
+                            // Service config numbers are JSON numbers, i.e. doubles
+                            "maxAttempts", (double) maxAttempts,
+                            "hedgingDelay", seconds(hedgingDelayMs),
+                            "nonFatalStatusCodes", List.of("UNAVAILABLE")));
+        } else {
+            methodConfig = Map.of(
+                    "name", UNARY_METHODS,
+                    "retryPolicy", Map.of(
+                            "maxAttempts", (double) maxAttempts,
+                            "initialBackoff", "0.1s",
+                            "maxBackoff", "1s",
+                            "backoffMultiplier", 2.0,
+                            "retryableStatusCodes", List.of("UNAVAILABLE")));
+        }
+        return Map.of("methodConfig", List.of(methodConfig));
+    }
+
+    private static String seconds(long millis) {
+        return (millis / 1000.0) + "s";
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        channels.forEach(ManagedChannel::shutdown);
+        for (ManagedChannel channel : channels) {
+            if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+    }
+}
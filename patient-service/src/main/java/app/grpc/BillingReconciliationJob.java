@@ -0,0 +1,255 @@
+package app.grpc;
+
+import app.repository.PatientBillingRepository;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Re-sends every patient without a confirmed billing account over one SyncBillingAccounts stream,
+ * e.g. after billing-service was down long enough for the batcher to give up. Patients are read
+ * in id-ordered pages and pushed only while the stream is ready, so a slow billing-service slows
+ * the scan instead of filling memory; acknowledgements are recorded after each page. Only one
+ * replica reconciles at a time, guarded by a Postgres advisory lock, since every replica would
+ * otherwise stream the same pending set.
+ */
+@Component
+@Slf4j
+public class BillingReconciliationJob {
+
+    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final PatientBillingRepository patientBillingRepository;
+    private final boolean enabled;
+    private final int pageSize;
+    private final long streamDeadlineMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Timer runTimer;
+    private final Counter sentCounter;
+    private final Counter confirmedCounter;
+    private final Counter failedCounter;
+
+    public BillingReconciliationJob(BillingServiceGrpcClient billingServiceGrpcClient,
+                                    PatientBillingRepository patientBillingRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${billing.reconciliation.enabled:true}") boolean enabled,
+                                    @Value("${billing.reconciliation.page-size:1000}") int pageSize,
+                                    @Value("${billing.reconciliation.stream-deadline-ms:3600000}") long streamDeadlineMs) {
+        this.billingServiceGrpcClient = billingServiceGrpcClient;
+        this.patientBillingRepository = patientBillingRepository;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.streamDeadlineMs = streamDeadlineMs;
+
+        this.runTimer = Timer.builder("billing.reconciliation.run")
+                .description("Time to stream every unconfirmed patient to billing-service")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("billing.reconciliation.sent");
+        this.confirmedCounter = meterRegistry.counter("billing.reconciliation.confirmed");
+        this.failedCounter = meterRegistry.counter("billing.reconciliation.failed");
+    }
+
+    @Scheduled(initialDelayString = "${billing.reconciliation.initial-delay-ms:60000}",
+            fixedDelayString = "${billing.reconciliation.interval-ms:900000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Result result = reconcile();
+            if (result.sent() > 0) {
+                log.info("Billing reconciliation sent {} patients: {} confirmed, {} failed",
+                        result.sent(), result.confirmed(), result.failed());
+            }
+        } catch (RuntimeException e) {
+            // Unconfirmed patients are picked up again on the next run
+            log.error("Billing reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one reconciliation pass; returns immediately with nothing sent if one is already running,
+     * here or on another replica.
+     */
+    public Result reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return new Result(0, 0, 0);
+        }
+        try {
+            return patientBillingRepository.withReconciliationLock(() -> runTimer.record(this::streamPending))
+                    .orElseGet(() -> new Result(0, 0, 0));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Result streamPending() {
+        SyncCall call = new SyncCall();
+        billingServiceGrpcClient.syncBillingAccounts(call, streamDeadlineMs);
+
+        long sent = 0;
+        long[] acknowledged = new long[2];
+        UUID after = null;
+        List<BillingRequest> page;
+        try {
+            do {
+                page = patientBillingRepository.findPendingAfter(after, pageSize);
+                for (BillingRequest request : page) {
+                    if (!call.send(request)) {
+                        break;
+                    }
+                    sent++;
+                }
+                if (!page.isEmpty()) {
+                    after = UUID.fromString(page.get(page.size() - 1).getPatientId());
+                }
+                recordAcknowledgements(call, acknowledged);
+            } while (page.size() == pageSize && !call.isDone());
+
+            call.finish(streamDeadlineMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.cancel("Reconciliation interrupted");
+        } catch (RuntimeException e) {
+            call.cancel(e.getMessage());
+            throw e;
+        } finally {
+            sentCounter.increment(sent);
+            recordAcknowledgements(call, acknowledged);
+        }
+        return new Result(sent, acknowledged[0], acknowledged[1]);
+    }
+
+    private void recordAcknowledgements(SyncCall call, long[] acknowledged) {
+        Map<UUID, UUID> confirmed = new HashMap<>();
+        BillingResponse response;
+        while ((response = call.acknowledgements.poll()) != null) {
+            UUID accountId = BillingServiceGrpcClient.confirmedAccountId(response);
+            if (accountId != null) {
+                confirmed.put(UUID.fromString(response.getPatientId()), accountId);
+            } else {
+                acknowledged[1]++;
+                failedCounter.increment();
+            }
+        }
+        patientBillingRepository.confirm(confirmed);
+        acknowledged[0] += confirmed.size();
+        confirmedCounter.increment(confirmed.size());
+    }
+
+    public record Result(long sent, long confirmed, long failed) {
+    }
+
+    /**
+     * Client side of one SyncBillingAccounts stream. The job thread sends, waiting on the
+     * transport's on-ready signal; responses are queued for the job thread to record.
+     */
+    private static final class SyncCall implements ClientResponseObserver<BillingRequest, BillingResponse> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition readyOrDone = lock.newCondition();
+        private final Queue<BillingResponse> acknowledgements = new ConcurrentLinkedQueue<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private ClientCallStreamObserver<BillingRequest> requestStream;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<BillingRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(this::signal);
+        }
+
+        @Override
+        public void onNext(BillingResponse response) {
+            acknowledgements.add(response);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            done.completeExceptionally(t);
+            signal();
+        }
+
+        @Override
+        public void onCompleted() {
+            done.complete(null);
+            signal();
+        }
+
+        /**
+         * Sends once the transport has room; returns {@code false} if the call already ended.
+         */
+        boolean send(BillingRequest request) throws InterruptedException {
+            lock.lock();
+            try {
+                while (!requestStream.isReady() && !done.isDone()) {
+                    readyOrDone.await(1, TimeUnit.SECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (done.isDone()) {
+                return false;
+            }
+            requestStream.onNext(request);
+            return true;
+        }
+
+        boolean isDone() {
+            return done.isDone();
+        }
+
+        /**
+         * Half-closes the stream and waits for billing-service to acknowledge everything sent.
+         */
+        void finish(long timeoutMs) throws InterruptedException {
+            if (!done.isDone()) {
+                requestStream.onCompleted();
+            }
+            try {
+                done.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("SyncBillingAccounts failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (TimeoutException e) {
+                cancel("Timed out waiting for acknowledgements");
+                throw new IllegalStateException("SyncBillingAccounts timed out waiting for acknowledgements");
+            }
+        }
+
+        void cancel(String reason) {
+            if (!done.isDone()) {
+                requestStream.cancel(reason, null);
+            }
+        }
+
+        private void signal() {
+            lock.lock();
+            try {
+                readyOrDone.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
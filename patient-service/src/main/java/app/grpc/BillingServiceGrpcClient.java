@@ -1,32 +1,36 @@
 package app.grpc;
 
+import billing.BillingBatchRequest;
+import billing.BillingBatchResponse;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientResponseObserver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 @Service
 @Slf4j
 public class BillingServiceGrpcClient {
 
-    private final BillingServiceGrpc.BillingServiceBlockingStub blockingStub;
-
-    public BillingServiceGrpcClient(
-//            These take value from env variables
-            @Value("${billing.service.address:localhost}") String serverAddress,
-            @Value("${billing.service.grpc.port:9001}") int serverPort) {
-
-        log.info("Connecting to Billing Service GRPC service at {}:{}",
-                serverAddress, serverPort);
+    public static final String FAILED = "FAILED";
 
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(serverAddress,
-                serverPort).usePlaintext().build();
+    private final BillingChannelPool channelPool;
+    private final long deadlineMs;
+    private final long batchDeadlineMs;
 
-        blockingStub = BillingServiceGrpc.newBlockingStub(channel);
+    public BillingServiceGrpcClient(
+            BillingChannelPool channelPool,
+            @Value("${billing.grpc.deadline-ms:2000}") long deadlineMs,
+            @Value("${billing.batch.rpc-deadline-ms:5000}") long batchDeadlineMs) {
+        this.channelPool = channelPool;
+        this.deadlineMs = deadlineMs;
+        this.batchDeadlineMs = batchDeadlineMs;
     }
 
     public void createBillingAccount(String patientId, String name,
@@ -35,7 +39,51 @@ public class BillingServiceGrpcClient {
         BillingRequest request = BillingRequest.newBuilder().setPatientId(patientId)
                 .setName(name).setEmail(email).build();
 
-        BillingResponse response = blockingStub.createBillingAccount(request);
+        BillingResponse response = stub()
+                .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .createBillingAccount(request);
         log.info("Received response from billing service via GRPC: {}", response);
     }
+
+    public BillingBatchResponse createBillingAccounts(List<BillingRequest> requests) {
+        BillingBatchRequest batchRequest = BillingBatchRequest.newBuilder()
+                .addAllRequests(requests)
+                .build();
+
+        BillingBatchResponse response = stub()
+                .withDeadlineAfter(batchDeadlineMs, TimeUnit.MILLISECONDS)
+                .createBillingAccounts(batchRequest);
+        log.debug("Received {} billing accounts from billing service via GRPC", response.getResponsesCount());
+        return response;
+    }
+
+    /**
+     * Opens a SyncBillingAccounts stream. The observer is responsible for flow control: it should
+     * only send while the request stream {@code isReady()}.
+     */
+    public void syncBillingAccounts(ClientResponseObserver<BillingRequest, BillingResponse> observer,
+                                    long deadlineMs) {
+        BillingServiceGrpc.newStub(channelPool.next())
+                .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .syncBillingAccounts(observer);
+    }
+
+    /**
+     * The account billing-service confirmed in a response, or {@code null} if the create failed.
+     */
+    public static UUID confirmedAccountId(BillingResponse response) {
+        if (FAILED.equals(response.getStatus()) || response.getAccountId().isEmpty()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(response.getAccountId());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Stubs are cheap wrappers; a fresh one per call picks the next channel in the pool
+    private BillingServiceGrpc.BillingServiceBlockingStub stub() {
+        return BillingServiceGrpc.newBlockingStub(channelPool.next());
+    }
 }
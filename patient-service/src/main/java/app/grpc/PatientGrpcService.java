@@ -0,0 +1,192 @@
+package app.grpc;
+
+import app.exception.InvalidBatchRequestException;
+import app.helper.PatientProtos;
+import app.service.PatientService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import patient.api.GetPatientsRequest;
+import patient.api.GetPatientsResponse;
+import patient.api.PatientServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Batch lookups by id for services that hold lists of patient ids, instead of one
+ * {@code GET /patients/{id}} per id.
+ * <p>
+ * StreamPatients runs on its own threads so it can wait for the client between chunks: the call's
+ * onReady callback cannot fire while a gRPC thread is blocked in the handler. Both the threads and
+ * the calls waiting for one are bounded: beyond them a call fails fast with RESOURCE_EXHAUSTED, and
+ * a client that takes nothing for {@code stream-stall-timeout-ms} is failed with DEADLINE_EXCEEDED
+ * so it cannot hold a thread indefinitely.
+ */
+@GrpcService
+@Slf4j
+public class PatientGrpcService extends PatientServiceGrpc.PatientServiceImplBase {
+
+    private final PatientService patientService;
+    private final ExecutorService streamExecutor;
+    private final long stallTimeoutNanos;
+
+    public PatientGrpcService(PatientService patientService,
+                              @Value("${patient.batch-get.stream-threads:4}") int streamThreads,
+                              @Value("${patient.batch-get.stream-queue:16}") int streamQueue,
+                              @Value("${patient.batch-get.stream-stall-timeout-ms:30000}") long stallTimeoutMs) {
+        this.patientService = patientService;
+        this.streamExecutor = new ThreadPoolExecutor(streamThreads, streamThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(streamQueue),
+                Thread.ofPlatform().name("patient-batch-stream-", 0).daemon().factory());
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
+    @Override
+    public void getPatients(GetPatientsRequest request, StreamObserver<GetPatientsResponse> responseObserver) {
+        log.debug("getPatients request received for {} ids", request.getIdsCount());
+        try {
+            responseObserver.onNext(PatientProtos.toProto(patientService.getPatientsByIds(toIds(request))));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void streamPatients(GetPatientsRequest request, StreamObserver<GetPatientsResponse> responseObserver) {
+        log.debug("streamPatients request received for {} ids", request.getIdsCount());
+        List<UUID> ids;
+        try {
+            ids = toIds(request);
+        } catch (InvalidBatchRequestException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+
+        ServerCallStreamObserver<GetPatientsResponse> call = (ServerCallStreamObserver<GetPatientsResponse>) responseObserver;
+        Readiness readiness = new Readiness(call, stallTimeoutNanos);
+        call.setOnReadyHandler(readiness::signal);
+        call.setOnCancelHandler(readiness::signal);
+        try {
+            streamExecutor.execute(() -> {
+                try {
+                    patientService.streamPatientsByIds(ids, chunk -> {
+                        readiness.await();
+                        call.onNext(PatientProtos.toProto(chunk));
+                    });
+                    call.onCompleted();
+                } catch (CancellationException e) {
+                    log.debug("streamPatients cancelled by the client");
+                } catch (StatusRuntimeException e) {
+                    call.onError(e);
+                } catch (RuntimeException e) {
+                    call.onError(toStatus(e).asRuntimeException());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            call.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many concurrent StreamPatients calls, retry later")
+                    .asRuntimeException());
+        }
+    }
+
+    private static List<UUID> toIds(GetPatientsRequest request) {
+        List<UUID> ids = new ArrayList<>(request.getIdsCount());
+        for (String id : request.getIdsList()) {
+            try {
+                ids.add(UUID.fromString(id));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidBatchRequestException("ids must be UUIDs: " + id);
+            }
+        }
+        return ids;
+    }
+
+    private static Status toStatus(RuntimeException e) {
+        if (e instanceof InvalidBatchRequestException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage());
+        }
+        if (e instanceof DataAccessException) {
+            log.warn("Patient lookup failed", e);
+            return Status.UNAVAILABLE.withDescription("Patient store unavailable");
+        }
+        log.error("Patient lookup failed", e);
+        return Status.INTERNAL.withDescription("Patient lookup failed");
+    }
+
+    /**
+     * Blocks the streaming thread until the call can take another message without buffering it,
+     * so a slow client slows the lookup instead of filling memory. Gives up once the client has
+     * taken nothing for the stall timeout.
+     */
+    private static final class Readiness {
+
+        private final ServerCallStreamObserver<?> call;
+        private final long stallTimeoutNanos;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        Readiness(ServerCallStreamObserver<?> call, long stallTimeoutNanos) {
+            this.call = call;
+            this.stallTimeoutNanos = stallTimeoutNanos;
+        }
+
+        void signal() {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void await() {
+            long deadline = System.nanoTime() + stallTimeoutNanos;
+            lock.lock();
+            try {
+                while (true) {
+                    if (call.isCancelled()) {
+                        throw new CancellationException();
+                    }
+                    if (call.isReady()) {
+                        return;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw Status.DEADLINE_EXCEEDED
+                                .withDescription("Client stopped reading the stream")
+                                .asRuntimeException();
+                    }
+                    // Timed, as a backstop should a readiness change arrive without a callback
+                    changed.await(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the client");
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
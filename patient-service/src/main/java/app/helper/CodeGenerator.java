@@ -1,26 +1,47 @@
 package app.helper;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
 /**
  * Utility class to generate codes using PostgreSQL sequences.
+ * <p>
+ * Sequences are created with {@code INCREMENT BY blockSize} and used as a pooled optimizer:
+ * each {@code nextval} reserves a whole block of codes which are then handed out from memory,
+ * so only one database round-trip is made per {@code blockSize} codes.
  */
 @Component
 public class CodeGenerator {
 
+    private static final Pattern SEQUENCE_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
     private static JdbcTemplate staticJdbcTemplate;
+    private static int blockSize = 50;
+    private static final Map<String, Block> BLOCKS = new ConcurrentHashMap<>();
+    // Guards block creation; held across JDBC I/O, so a lock rather than computeIfAbsent's bin monitor
+    private static final ReentrantLock CREATE_LOCK = new ReentrantLock();
 
     @Autowired
     public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
         CodeGenerator.staticJdbcTemplate = jdbcTemplate;
     }
 
+    @Autowired
+    public void setBlockSize(@Value("${patient.code.block-size:50}") int blockSize) {
+        CodeGenerator.blockSize = blockSize;
+    }
+
     /**
      * Generate a code using a given sequence name and optional prefix.
      *
-     * @param sequenceName the name of the PostgreSQL sequence (must exist)
+     * @param sequenceName the name of the PostgreSQL sequence (created on first use if missing)
      * @param prefix       optional prefix (e.g., "P" for patient)
      * @param padding      number of digits to pad the sequence value with
      * @return formatted code, e.g., "P000123"
@@ -30,7 +51,68 @@ public class CodeGenerator {
             throw new IllegalStateException("JdbcTemplate not initialized");
         }
 
-        Long nextVal = staticJdbcTemplate.queryForObject("SELECT nextval(?)", Long.class, sequenceName);
+        long nextVal = block(sequenceName).next();
         return String.format("%s%0" + padding + "d", prefix != null ? prefix : "", nextVal);
     }
+
+    private static Block block(String sequenceName) {
+        Block block = BLOCKS.get(sequenceName);
+        if (block != null) {
+            return block;
+        }
+        CREATE_LOCK.lock();
+        try {
+            block = BLOCKS.get(sequenceName);
+            if (block == null) {
+                block = createBlock(sequenceName);
+                BLOCKS.putIfAbsent(sequenceName, block);
+            }
+            return block;
+        } finally {
+            CREATE_LOCK.unlock();
+        }
+    }
+
+    private static Block createBlock(String sequenceName) {
+        if (!SEQUENCE_NAME.matcher(sequenceName).matches()) {
+            throw new IllegalArgumentException("Invalid sequence name: " + sequenceName);
+        }
+        staticJdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName
+                + " START WITH 1 INCREMENT BY " + blockSize);
+        // Trust the sequence's own increment so a pre-existing sequence never yields overlapping blocks
+        Integer increment = staticJdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Integer.class, sequenceName);
+        return new Block(sequenceName, increment != null ? increment : 1);
+    }
+
+    private static final class Block {
+
+        private final String sequenceName;
+        private final int size;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long end;
+
+        Block(String sequenceName, int size) {
+            this.sequenceName = sequenceName;
+            this.size = size;
+        }
+
+        // A lock rather than synchronized: the refill does JDBC I/O, which would pin a virtual
+        // thread's carrier inside a monitor on Java 21
+        long next() {
+            lock.lock();
+            try {
+                if (next == end) {
+                    // nextval returns the first value of a freshly reserved block
+                    Long start = staticJdbcTemplate.queryForObject("SELECT nextval(?)", Long.class, sequenceName);
+                    next = start;
+                    end = start + size;
+                }
+                return next++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package app.helper;
+
+import app.exception.InvalidPageTokenException;
+import app.model.Patient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination over patients.
+ * Encodes the (registeredDate, id) of the last row of a page so the next
+ * page can resume with a seek instead of an OFFSET scan.
+ */
+public final class PageToken {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Date registeredDate;
+    private final UUID id;
+
+    private PageToken(Date registeredDate, UUID id) {
+        this.registeredDate = registeredDate;
+        this.id = id;
+    }
+
+    public Date getRegisteredDate() {
+        return registeredDate;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public static String encode(Patient lastPatient) {
+        return encode(lastPatient.getRegisteredDate(), lastPatient.getId());
+    }
+
+    public static String encode(Date registeredDate, UUID id) {
+        String raw = registeredDate.getTime() + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageToken decode(String token) {
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidPageTokenException("Malformed page token");
+            }
+            return new PageToken(new Date(Long.parseLong(raw.substring(0, separator))),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException("Malformed page token");
+        }
+    }
+}
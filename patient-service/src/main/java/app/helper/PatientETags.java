@@ -0,0 +1,128 @@
+package app.helper;
+
+import app.dto.PatientPageDTO;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
+import app.dto.PatientRequestDTO;
+import app.dto.PatientSearchResultDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * ETags for patient responses, hashed from the DTO fields rather than the serialized JSON.
+ * A conditional GET that matches is answered 304 before the body is ever written, and the
+ * gateway's response cache can revalidate without patient-service producing the body again.
+ * <p>
+ * The tags are weak: the same data goes out as JSON or protobuf, gzip or zstd encoded, so the
+ * bytes differ for one tag. Tomcat also skips compression for any response with a strong ETag.
+ */
+public final class PatientETags {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private PatientETags() {
+    }
+
+    public static String of(PatientRequestDTO patient) {
+        MessageDigest digest = sha256();
+        update(digest, patient);
+        return format(digest);
+    }
+
+    public static String of(PatientPageDTO page) {
+        MessageDigest digest = sha256();
+        update(digest, page.getPatients());
+        update(digest, page.getNextPageToken());
+        return format(digest);
+    }
+
+    public static String of(PatientSearchResultDTO result) {
+        MessageDigest digest = sha256();
+        update(digest, result.getPatients());
+        digest.update(ByteBuffer.allocate(9)
+                .putInt(result.getPage())
+                .putInt(result.getSize())
+                .put((byte) (result.isHasMore() ? 1 : 0))
+                .flip());
+        return format(digest);
+    }
+
+    public static String of(PatientProjectionDTO patient) {
+        MessageDigest digest = sha256();
+        update(digest, patient);
+        return format(digest);
+    }
+
+    public static String of(PatientProjectionPageDTO page) {
+        MessageDigest digest = sha256();
+        digest.update(ByteBuffer.allocate(4).putInt(page.getPatients().size()).flip());
+        for (PatientProjectionDTO patient : page.getPatients()) {
+            update(digest, patient);
+        }
+        update(digest, page.getNextPageToken());
+        return format(digest);
+    }
+
+    // Property names are included, so two projections with the same values differ
+    private static void update(MessageDigest digest, PatientProjectionDTO patient) {
+        digest.update(ByteBuffer.allocate(4).putInt(patient.getFields().size()).flip());
+        patient.getFields().forEach((property, value) -> {
+            update(digest, property);
+            if (value instanceof Date date) {
+                update(digest, date);
+            } else {
+                update(digest, value != null ? value.toString() : null);
+            }
+        });
+    }
+
+    private static void update(MessageDigest digest, List<PatientRequestDTO> patients) {
+        digest.update(ByteBuffer.allocate(4).putInt(patients.size()).flip());
+        for (PatientRequestDTO patient : patients) {
+            update(digest, patient);
+        }
+    }
+
+    private static void update(MessageDigest digest, PatientRequestDTO patient) {
+        update(digest, patient.getId() != null ? patient.getId().toString() : null);
+        update(digest, patient.getName());
+        update(digest, patient.getEmail());
+        update(digest, patient.getAddress());
+        update(digest, patient.getBirthDate());
+        update(digest, patient.getRegisteredDate());
+    }
+
+    private static void update(MessageDigest digest, Date date) {
+        digest.update(ByteBuffer.allocate(9)
+                .put((byte) (date != null ? 1 : 0))
+                .putLong(date != null ? date.getTime() : 0)
+                .flip());
+    }
+
+    // Length-prefixed so ("ab", "c") and ("a", "bc") hash differently
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        digest.update(ByteBuffer.allocate(4).putInt(value != null ? bytes.length : -1).flip());
+        digest.update(bytes);
+    }
+
+    private static String format(MessageDigest digest) {
+        // 128 bits is plenty to tell two versions of a response apart
+        return "W/\"" + ENCODER.encodeToString(Arrays.copyOf(digest.digest(), 16)) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package app.helper;
+
+import app.dto.PatientRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Line-at-a-time readers for streamed bulk uploads, so an import never holds the whole body in memory.
+ * Each parsed row carries either a patient or the reason it could not be parsed.
+ */
+public final class PatientImportReader {
+
+    public static final String[] CSV_COLUMNS = {"name", "email", "address", "birthDate", "registeredDate"};
+
+    private PatientImportReader() {
+    }
+
+    public record ParsedRow(int row, PatientRequestDTO patient, String parseError) {
+    }
+
+    public static Iterator<ParsedRow> ndjson(InputStream body, ObjectMapper objectMapper) {
+        ObjectReader reader = objectMapper.readerFor(PatientRequestDTO.class);
+        return new LineIterator(body, false, line -> {
+            try {
+                return reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    /**
+     * Reads CSV with a header row of {@link #CSV_COLUMNS}; fields may be double-quoted (addresses contain commas).
+     */
+    public static Iterator<ParsedRow> csv(InputStream body) {
+        return new LineIterator(body, true, line -> {
+            List<String> fields = splitCsvLine(line);
+            if (fields.size() != CSV_COLUMNS.length) {
+                throw new IllegalArgumentException("Expected " + CSV_COLUMNS.length + " columns but found " + fields.size());
+            }
+            return new PatientRequestDTO(null, fields.get(0), fields.get(1), fields.get(2),
+                    parseDate(fields.get(3)), parseDate(fields.get(4)));
+        });
+    }
+
+    private static Date parseDate(String value) {
+        if (value.isBlank()) {
+            return null;
+        }
+        return Date.from(LocalDate.parse(value.trim()).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS.length);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static final class LineIterator implements Iterator<ParsedRow> {
+
+        private final BufferedReader reader;
+        private final Function<String, PatientRequestDTO> parser;
+        // Counts blank lines too, so row numbers are line numbers (after the header, if any)
+        private int nextRow;
+        private String nextLine;
+
+        LineIterator(InputStream body, boolean skipHeader, Function<String, PatientRequestDTO> parser) {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            this.parser = parser;
+            if (skipHeader) {
+                readLine();
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public ParsedRow next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            int current = nextRow;
+            advance();
+            try {
+                return new ParsedRow(current, parser.apply(line), null);
+            } catch (RuntimeException e) {
+                return new ParsedRow(current, null, e.getMessage());
+            }
+        }
+
+        private void advance() {
+            do {
+                nextLine = readLine();
+                nextRow++;
+            } while (nextLine != null && nextLine.isBlank());
+        }
+
+        private String readLine() {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package app.helper;
+
+import app.dto.PatientBatchResultDTO;
+import app.dto.PatientPageDTO;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
+import app.dto.PatientRequestDTO;
+import app.dto.PatientSearchResultDTO;
+import patient.api.GetPatientsResponse;
+import patient.api.Patient;
+import patient.api.PatientPage;
+import patient.api.PatientSearchResult;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Maps patient DTOs to and from the {@code patient.api} protobuf messages served as
+ * {@code application/x-protobuf}. Unset proto fields map to null, as absent JSON properties do.
+ */
+public final class PatientProtos {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private PatientProtos() {
+    }
+
+    public static Patient toProto(PatientRequestDTO patient) {
+        Patient.Builder builder = Patient.newBuilder();
+        if (patient.getId() != null) {
+            builder.setId(patient.getId().toString());
+        }
+        if (patient.getName() != null) {
+            builder.setName(patient.getName());
+        }
+        if (patient.getEmail() != null) {
+            builder.setEmail(patient.getEmail());
+        }
+        if (patient.getAddress() != null) {
+            builder.setAddress(patient.getAddress());
+        }
+        if (patient.getBirthDate() != null) {
+            builder.setBirthDate(toEpochDay(patient.getBirthDate()));
+        }
+        if (patient.getRegisteredDate() != null) {
+            builder.setRegisteredDate(toEpochDay(patient.getRegisteredDate()));
+        }
+        return builder.build();
+    }
+
+    public static PatientPage toProto(PatientPageDTO page) {
+        PatientPage.Builder builder = PatientPage.newBuilder();
+        page.getPatients().forEach(patient -> builder.addPatients(toProto(patient)));
+        if (page.getNextPageToken() != null) {
+            builder.setNextPageToken(page.getNextPageToken());
+        }
+        return builder.build();
+    }
+
+    // Fields that were not requested stay unset, so they take no bytes on the wire
+    public static Patient toProto(PatientProjectionDTO patient) {
+        Patient.Builder builder = Patient.newBuilder();
+        patient.getFields().forEach((property, value) -> {
+            if (value == null) {
+                return;
+            }
+            switch (property) {
+                case "id" -> builder.setId(value.toString());
+                case "name" -> builder.setName((String) value);
+                case "email" -> builder.setEmail((String) value);
+                case "address" -> builder.setAddress((String) value);
+                case "birthDate" -> builder.setBirthDate(toEpochDay((Date) value));
+                case "registeredDate" -> builder.setRegisteredDate(toEpochDay((Date) value));
+                default -> throw new IllegalArgumentException("Unknown patient field: " + property);
+            }
+        });
+        return builder.build();
+    }
+
+    public static PatientPage toProto(PatientProjectionPageDTO page) {
+        PatientPage.Builder builder = PatientPage.newBuilder();
+        page.getPatients().forEach(patient -> builder.addPatients(toProto(patient)));
+        if (page.getNextPageToken() != null) {
+            builder.setNextPageToken(page.getNextPageToken());
+        }
+        return builder.build();
+    }
+
+    public static PatientSearchResult toProto(PatientSearchResultDTO result) {
+        PatientSearchResult.Builder builder = PatientSearchResult.newBuilder()
+                .setPage(result.getPage())
+                .setSize(result.getSize())
+                .setHasMore(result.isHasMore());
+        result.getPatients().forEach(patient -> builder.addPatients(toProto(patient)));
+        return builder.build();
+    }
+
+    public static GetPatientsResponse toProto(PatientBatchResultDTO result) {
+        GetPatientsResponse.Builder builder = GetPatientsResponse.newBuilder();
+        result.getPatients().forEach(patient -> builder.addPatients(toProto(patient)));
+        result.getMissingIds().forEach(id -> builder.addMissingIds(id.toString()));
+        return builder.build();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code id} is set but is not a UUID
+     */
+    public static PatientRequestDTO fromProto(Patient patient) {
+        return new PatientRequestDTO(
+                patient.getId().isEmpty() ? null : UUID.fromString(patient.getId()),
+                emptyToNull(patient.getName()),
+                emptyToNull(patient.getEmail()),
+                emptyToNull(patient.getAddress()),
+                patient.hasBirthDate() ? fromEpochDay(patient.getBirthDate()) : null,
+                patient.hasRegisteredDate() ? fromEpochDay(patient.getRegisteredDate()) : null);
+    }
+
+    // getTime() rather than toInstant(): JPA hands back java.sql.Date, whose toInstant() throws
+    private static int toEpochDay(Date date) {
+        return Math.toIntExact(Math.floorDiv(date.getTime(), MILLIS_PER_DAY));
+    }
+
+    private static Date fromEpochDay(int epochDay) {
+        return new Date(epochDay * MILLIS_PER_DAY);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,42 @@
+package app.helper;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.UUID;
+
+/**
+ * UUID id generator selected by the {@code pm.id.strategy} Hibernate property:
+ * {@code time-ordered} (default) issues {@link UuidV7} values, {@code random} keeps the previous v4 behaviour.
+ * Both are generated before the insert, so Hibernate can still batch inserts.
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String STRATEGY_SETTING = "pm.id.strategy";
+
+    private final boolean timeOrdered;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object strategy = context.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(STRATEGY_SETTING);
+        this.timeOrdered = strategy == null || !"random".equalsIgnoreCase(strategy.toString());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return timeOrdered ? UuidV7.next() : UUID.randomUUID();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
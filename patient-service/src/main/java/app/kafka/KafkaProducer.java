@@ -1,11 +1,19 @@
 package app.kafka;
 
-import app.model.Patient;
+import app.model.PatientOutboxEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
-import patient.events.PatientEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
@@ -14,18 +22,32 @@ public class KafkaProducer {
 
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
 
-    public void sendEvent(Patient patient) {
-        PatientEvent event = PatientEvent.newBuilder()
-                .setPatientId(patient.getId().toString())
-                .setName(patient.getName())
-                .setEmail(patient.getEmail())
-                .setEventType("PATIENT_CREATED")
-                .build();
+    @Value("${patient.outbox.topic:patient}")
+    private String topic;
+
+    @Value("${patient.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Publishes a batch keyed by patientId, so all events for one patient land on the same
+     * partition, and waits until every record is acknowledged. They arrive in batch order because
+     * the producer is idempotent and OutboxRelay lets only one replica publish at a time.
+     */
+    public void sendBatch(List<PatientOutboxEvent> events) {
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(events.size());
+        for (PatientOutboxEvent event : events) {
+            futures.add(kafkaTemplate.send(topic, event.getPatientId(), event.getPayload()));
+        }
 
         try {
-            kafkaTemplate.send("patient", event.toByteArray());
-        } catch (Exception e) {
-            log.error("Error sending PatientCreated event: {}", event);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing patient events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Error publishing batch of {} patient events: {}", events.size(), e.getMessage());
+            throw new IllegalStateException("Failed to publish patient events", e);
         }
     }
 
@@ -0,0 +1,85 @@
+package app.kafka;
+
+import app.model.PatientOutboxEvent;
+import app.repository.PatientOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains patient_outbox to Kafka in batches. A batch is deleted only after every record in it
+ * has been acknowledged, giving at-least-once delivery of committed patient changes. Only the
+ * replica holding the relay lock publishes, so events for one patient reach Kafka in id order.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final PatientOutboxRepository outboxRepository;
+    private final KafkaProducer kafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Counter publishedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(PatientOutboxRepository outboxRepository,
+                       KafkaProducer kafkaProducer,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${patient.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        this.publishedCounter = meterRegistry.counter("patient.outbox.published");
+        this.batchTimer = Timer.builder("patient.outbox.relay.batch")
+                .description("Time to lock, publish and delete one outbox batch")
+                .register(meterRegistry);
+        meterRegistry.gauge("patient.outbox.lag.ms", lagMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${patient.outbox.relay-interval-ms:200}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            // Rows stay in the outbox and are retried on the next tick
+            log.error("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        if (!outboxRepository.tryLockRelay()) {
+            // Another replica is relaying; it drains the outbox for everyone
+            return 0;
+        }
+        List<PatientOutboxEvent> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+
+        kafkaProducer.sendBatch(batch);
+        outboxRepository.deleteAllInBatch(batch);
+
+        publishedCounter.increment(batch.size());
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+        return batch.size();
+    }
+}
@@ -0,0 +1,35 @@
+package app.kafka;
+
+import app.cache.PatientCache;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import patient.events.PatientEvent;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientCacheInvalidationListener {
+
+    private final PatientCache patientCache;
+
+    //    Each replica joins its own consumer group so every instance sees every change
+    @KafkaListener(topics = "${patient.outbox.topic:patient}",
+            groupId = "${patient.cache.invalidation-group}")
+    public void onPatientEvent(byte[] payload) {
+        try {
+            PatientEvent event = PatientEvent.parseFrom(payload);
+            if (PatientEventOutbox.PATIENT_UPDATED.equals(event.getEventType())
+                    || PatientEventOutbox.PATIENT_DELETED.equals(event.getEventType())) {
+                patientCache.evict(UUID.fromString(event.getPatientId()));
+                log.debug("Evicted patient {} from cache after {}", event.getPatientId(), event.getEventType());
+            }
+        } catch (InvalidProtocolBufferException | IllegalArgumentException e) {
+            log.error("Error deserializing patient event for cache invalidation {}", e.getMessage());
+        }
+    }
+}
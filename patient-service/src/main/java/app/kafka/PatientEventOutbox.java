@@ -0,0 +1,63 @@
+package app.kafka;
+
+import app.model.Patient;
+import app.model.PatientOutboxEvent;
+import app.repository.PatientOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import patient.events.PatientEvent;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class PatientEventOutbox {
+
+    public static final String PATIENT_CREATED = "PATIENT_CREATED";
+    public static final String PATIENT_UPDATED = "PATIENT_UPDATED";
+    public static final String PATIENT_DELETED = "PATIENT_DELETED";
+
+    private final PatientOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    //    Must join the caller's transaction so the event commits or rolls back with the patient row
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Patient patient, String eventType) {
+        PatientEvent event = toEvent(patient, eventType);
+
+        PatientOutboxEvent outboxEvent = new PatientOutboxEvent();
+        outboxEvent.setPatientId(event.getPatientId());
+        outboxEvent.setEventType(eventType);
+        outboxEvent.setPayload(event.toByteArray());
+        outboxEvent.setCreatedAt(Instant.now());
+        outboxRepository.save(outboxEvent);
+    }
+
+    //    JDBC batch insert: the IDENTITY key on patient_outbox rules out Hibernate insert batching
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Patient> patients, String eventType) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO patient_outbox (patient_id, event_type, payload, created_at) VALUES (?, ?, ?, ?)",
+                patients, patients.size(), (ps, patient) -> {
+                    ps.setString(1, patient.getId().toString());
+                    ps.setString(2, eventType);
+                    ps.setBytes(3, toEvent(patient, eventType).toByteArray());
+                    ps.setTimestamp(4, now);
+                });
+    }
+
+    private static PatientEvent toEvent(Patient patient, String eventType) {
+        return PatientEvent.newBuilder()
+                .setPatientId(patient.getId().toString())
+                .setName(patient.getName())
+                .setEmail(patient.getEmail())
+                .setEventType(eventType)
+                .build();
+    }
+}
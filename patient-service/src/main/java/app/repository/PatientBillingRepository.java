@@ -0,0 +1,107 @@
+package app.repository;
+
+import billing.BillingRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Tracks which patients billing-service has confirmed an account for (patient.billing_account_id,
+ * added by the V5 migration).
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientBillingRepository {
+
+    // Served by idx_patient_billing_pending
+    private static final String FIND_PENDING = """
+            SELECT id, name, email FROM patient
+            WHERE billing_account_id IS NULL AND id > :afterId
+            ORDER BY id
+            LIMIT :limit""";
+
+    private static final String CONFIRM = """
+            UPDATE patient SET billing_account_id = :accountId
+            WHERE id = :patientId AND billing_account_id IS NULL""";
+
+    // Session-level rather than xact: a reconciliation run spans many short transactions
+    private static final String TRY_LOCK_RECONCILIATION =
+            "SELECT pg_try_advisory_lock(hashtext('billing_reconciliation'))";
+    private static final String UNLOCK_RECONCILIATION =
+            "SELECT pg_advisory_unlock(hashtext('billing_reconciliation'))";
+
+    // Postgres orders uuids bytewise, so the nil uuid sorts first
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Next page of patients without a confirmed billing account, as billing requests, keyset-paged by id.
+     *
+     * @param afterId last id of the previous page, or {@code null} for the first page
+     */
+    public List<BillingRequest> findPendingAfter(UUID afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId != null ? afterId : MIN_ID)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(FIND_PENDING, params, (rs, rowNum) -> BillingRequest.newBuilder()
+                .setPatientId(rs.getObject("id", UUID.class).toString())
+                .setName(rs.getString("name"))
+                .setEmail(rs.getString("email"))
+                .build());
+    }
+
+    /**
+     * Records billing accounts as confirmed, keyed by patient id.
+     */
+    public void confirm(Map<UUID, UUID> accountIdsByPatientId) {
+        if (accountIdsByPatientId.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = accountIdsByPatientId.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("patientId", entry.getKey())
+                        .addValue("accountId", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(CONFIRM, batch);
+    }
+
+    /**
+     * Runs {@code action} only if no other replica is reconciling, holding a Postgres advisory lock
+     * on a dedicated connection until it returns. If that connection dies, Postgres drops the lock.
+     *
+     * @return the action's result, or empty if another replica holds the lock
+     */
+    public <T> Optional<T> withReconciliationLock(Supplier<T> action) {
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Optional<T>>) connection -> {
+            if (!queryForBoolean(connection, TRY_LOCK_RECONCILIATION)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(action.get());
+            } finally {
+                queryForBoolean(connection, UNLOCK_RECONCILIATION);
+            }
+        });
+    }
+
+    private static boolean queryForBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+}
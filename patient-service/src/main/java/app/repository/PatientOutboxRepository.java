@@ -0,0 +1,24 @@
+package app.repository;
+
+import app.model.PatientOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PatientOutboxRepository extends JpaRepository<PatientOutboxEvent, Long> {
+
+    //    One relay at a time across all replicas: two relays publishing consecutive events for one
+    //    patient concurrently could reorder them. Held until the relay's transaction ends
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('patient_outbox_relay'))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    //    Row locks as a second guard against double-publishing alongside the relay lock
+    @Query(value = "SELECT * FROM patient_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<PatientOutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+}
@@ -0,0 +1,54 @@
+package app.repository;
+
+import app.dto.PatientProjectionDTO;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sparse reads for {@code fields=} requests, mixed into {@link PatientRepository}. Only the columns of
+ * the requested fields are selected, and rows come back as {@link PatientProjectionDTO}s holding just
+ * those fields rather than as entities.
+ */
+public interface PatientProjectionRepository {
+
+    /**
+     * The fields a client may ask for, by their JSON property names. Anything else is rejected.
+     */
+    enum Field {
+        ID("id", "id"),
+        NAME("name", "name"),
+        EMAIL("email", "email"),
+        ADDRESS("address", "address"),
+        BIRTH_DATE("birthDate", "birth_date"),
+        REGISTERED_DATE("registeredDate", "registered_date");
+
+        private final String property;
+        private final String column;
+
+        Field(String property, String column) {
+            this.property = property;
+            this.column = column;
+        }
+
+        public String property() {
+            return property;
+        }
+
+        String column() {
+            return column;
+        }
+    }
+
+    /**
+     * A keyset page in (registeredDate, id) order, like {@link PatientRepository#findPageAfter}.
+     *
+     * @param registeredDate registeredDate of the last row of the previous page, {@code null} for the first page
+     */
+    List<PatientProjectionDTO> findPageProjected(Set<Field> fields, Date registeredDate, UUID afterId, int limit);
+
+    Optional<PatientProjectionDTO> findProjectedById(UUID id, Set<Field> fields);
+}
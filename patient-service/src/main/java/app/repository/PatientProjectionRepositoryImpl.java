@@ -0,0 +1,66 @@
+package app.repository;
+
+import app.dto.PatientProjectionDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC rather than JPQL, so the select list can be built from the requested fields; column names
+ * only ever come from {@link Field}.
+ */
+@RequiredArgsConstructor
+public class PatientProjectionRepositoryImpl implements PatientProjectionRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<PatientProjectionDTO> findPageProjected(Set<Field> fields, Date registeredDate, UUID afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String sql = "SELECT " + columns(fields) + " FROM patient";
+        if (registeredDate != null) {
+            // Row comparison seeks on idx_patient_registered_date_id like the JPQL keyset query
+            sql += " WHERE (registered_date, id) > (:registeredDate, :afterId)";
+            params.addValue("registeredDate", new Timestamp(registeredDate.getTime()))
+                    .addValue("afterId", afterId);
+        }
+        return jdbcTemplate.query(sql + " ORDER BY registered_date, id LIMIT :limit", params, rowMapper(fields));
+    }
+
+    @Override
+    public Optional<PatientProjectionDTO> findProjectedById(UUID id, Set<Field> fields) {
+        return jdbcTemplate.query("SELECT " + columns(fields) + " FROM patient WHERE id = :id",
+                new MapSqlParameterSource("id", id), rowMapper(fields)).stream().findFirst();
+    }
+
+    private static String columns(Set<Field> fields) {
+        return fields.stream().map(Field::column).collect(Collectors.joining(", "));
+    }
+
+    // Same value types as PatientRequestDTO; dates come out as yyyy-MM-dd through spring.jackson.date-format
+    private static RowMapper<PatientProjectionDTO> rowMapper(Set<Field> fields) {
+        return (rs, rowNum) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Field field : fields) {
+                Object value = switch (field) {
+                    case ID -> rs.getObject(field.column(), UUID.class);
+                    case BIRTH_DATE, REGISTERED_DATE -> rs.getTimestamp(field.column());
+                    default -> rs.getString(field.column());
+                };
+                values.put(field.property(), value);
+            }
+            return new PatientProjectionDTO(values);
+        };
+    }
+}
@@ -1,14 +1,50 @@
 package app.repository;
 
 import app.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, UUID> {
+public interface PatientRepository extends JpaRepository<Patient, UUID>, PatientProjectionRepository {
 
-    boolean existsByEmail(String email);
+    @Query("select p.email from Patient p where p.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    //    One primary-key index probe per id in a single statement; callers restore request order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select p from Patient p where p.id in :ids")
+    List<Patient> findAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    //    Keyset pagination: ordering on (registeredDate, id) is stable and lets every page seek instead of OFFSET
+    @Query("select p from Patient p order by p.registeredDate, p.id")
+    List<Patient> findFirstPage(Pageable pageable);
+
+    @Query("select p from Patient p " +
+            "where p.registeredDate > :registeredDate " +
+            "or (p.registeredDate = :registeredDate and p.id > :id) " +
+            "order by p.registeredDate, p.id")
+    List<Patient> findPageAfter(@Param("registeredDate") Date registeredDate,
+                                @Param("id") UUID id,
+                                Pageable pageable);
+
+    //    Forward-only cursor for exports; must be consumed inside a transaction so the driver honours the fetch size
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p order by p.registeredDate, p.id")
+    Stream<Patient> streamAllOrdered();
 
 }
@@ -0,0 +1,112 @@
+package app.repository;
+
+import app.dto.PatientRequestDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Patient search over the pg_trgm and full-text indexes created by the V2 and V3 migrations. Every predicate is
+ * written exactly like its index expression so the planner can use it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientSearchRepository {
+
+    private static final String COLUMNS = "id, name, email, address, birth_date, registered_date";
+    // Must match idx_patient_search_document
+    private static final String DOCUMENT = "to_tsvector('simple', name || ' ' || email || ' ' || address)";
+
+    private static final RowMapper<PatientRequestDTO> ROW_MAPPER = (rs, rowNum) -> new PatientRequestDTO(
+            rs.getObject("id", UUID.class),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getString("address"),
+            rs.getDate("birth_date"),
+            rs.getDate("registered_date"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public enum Mode {
+        /** Every selected field is matched on its start: "jo" finds "John Doe" and "jo@x.com". */
+        PREFIX,
+        /** Trigram word similarity, tolerant of typos: "jhon" finds "John Doe". */
+        FUZZY,
+        /** Every word must prefix-match a word anywhere in name, email or address: "john spring". */
+        TEXT
+    }
+
+    public enum Field {
+        NAME("name"), EMAIL("email"), ADDRESS("address");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * @param query  lower-cased search text
+     * @param fields fields to match for {@link Mode#PREFIX} and {@link Mode#FUZZY}; TEXT always uses all three
+     */
+    public List<PatientRequestDTO> search(Mode mode, String query, List<Field> fields, int limit, int offset) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+
+        String sql = switch (mode) {
+            case PREFIX -> {
+                params.addValue("pattern", escapeLike(query) + "%");
+                yield "SELECT " + COLUMNS + " FROM patient WHERE "
+                        + join(fields, f -> "lower(" + f.column + ") LIKE :pattern", " OR ")
+                        + " ORDER BY lower(" + fields.get(0).column + "), id";
+            }
+            case FUZZY -> {
+                params.addValue("query", query);
+                yield "SELECT " + COLUMNS + " FROM patient WHERE "
+                        + join(fields, f -> ":query <% lower(" + f.column + ")", " OR ")
+                        + " ORDER BY " + (fields.size() == 1
+                        ? "word_similarity(:query, lower(" + fields.get(0).column + "))"
+                        : "greatest(" + join(fields, f -> "word_similarity(:query, lower(" + f.column + "))", ", ") + ")")
+                        + " DESC, id";
+            }
+            case TEXT -> {
+                params.addValue("tsquery", toPrefixTsQuery(query));
+                yield "SELECT " + COLUMNS + " FROM patient"
+                        + " WHERE " + DOCUMENT + " @@ to_tsquery('simple', :tsquery)"
+                        + " ORDER BY ts_rank(" + DOCUMENT + ", to_tsquery('simple', :tsquery)) DESC, id";
+            }
+        };
+
+        return jdbcTemplate.query(sql + " LIMIT :limit OFFSET :offset", params, ROW_MAPPER);
+    }
+
+    /**
+     * Builds {@code word1:* & word2:*} from the letters and digits of the query, so user input
+     * never reaches the tsquery parser as syntax.
+     */
+    public static String toPrefixTsQuery(String query) {
+        return Arrays.stream(query.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String join(List<Field> fields, Function<Field, String> predicate,
+                               String separator) {
+        return fields.stream().map(predicate).collect(Collectors.joining(separator));
+    }
+}
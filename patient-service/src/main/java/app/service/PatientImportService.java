@@ -0,0 +1,219 @@
+package app.service;
+
+import app.dto.BulkImportResultDTO;
+import app.dto.BulkImportRowResultDTO;
+import app.dto.BulkImportRowResultDTO.Status;
+import app.dto.PatientRequestDTO;
+import app.dto.validators.CreatePatientValidationGroup;
+import app.grpc.BillingAccountBatcher;
+import app.helper.PatientImportReader.ParsedRow;
+import app.helper.UuidV7;
+import app.kafka.PatientEventOutbox;
+import app.mapper.PatientMapper;
+import app.model.Patient;
+import app.repository.PatientRepository;
+import billing.BillingRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk patient ingest. Rows are validated individually, then processed in chunks: one set-based
+ * email lookup, one JDBC batch insert, one outbox batch and one billing submission per chunk,
+ * each chunk committed in its own transaction. A chunk the database rejects, e.g. because a
+ * concurrent insert took one of its emails, is retried row by row so only the offending rows fail.
+ */
+@Service
+@Slf4j
+public class PatientImportService {
+
+    private static final String INSERT_PATIENT =
+            "INSERT INTO patient (id, name, email, address, birth_date, registered_date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final PatientEventOutbox patientEventOutbox;
+    private final BillingAccountBatcher billingAccountBatcher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public PatientImportService(PatientRepository patientRepository,
+                                PatientMapper patientMapper,
+                                PatientEventOutbox patientEventOutbox,
+                                BillingAccountBatcher billingAccountBatcher,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                @Value("${patient.import.chunk-size:1000}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.patientMapper = patientMapper;
+        this.patientEventOutbox = patientEventOutbox;
+        this.billingAccountBatcher = billingAccountBatcher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportResultDTO importPatients(List<PatientRequestDTO> patients) {
+        Iterator<PatientRequestDTO> source = patients.iterator();
+        return importRows(new Iterator<>() {
+            private int row;
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public ParsedRow next() {
+                return new ParsedRow(++row, source.next(), null);
+            }
+        });
+    }
+
+    public BulkImportResultDTO importRows(Iterator<ParsedRow> rows) {
+        List<BulkImportRowResultDTO> results = new ArrayList<>();
+        // Emails accepted earlier in this upload, so duplicates inside the file are caught too
+        Set<String> seenEmails = new HashSet<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        int created = 0;
+
+        while (rows.hasNext()) {
+            ParsedRow row = rows.next();
+            Map<String, String> errors = validate(row);
+            if (!errors.isEmpty()) {
+                results.add(new BulkImportRowResultDTO(row.row(), Status.INVALID, null,
+                        row.patient() != null ? row.patient().getEmail() : null, errors));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                created += importChunk(chunk, seenEmails, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(chunk, seenEmails, results);
+        }
+
+        results.sort(Comparator.comparingInt(BulkImportRowResultDTO::getRow));
+        log.info("Bulk import finished: {} created, {} rejected", created, results.size() - created);
+        return new BulkImportResultDTO(created, results.size() - created, results);
+    }
+
+    private Map<String, String> validate(ParsedRow row) {
+        Map<String, String> errors = new HashMap<>();
+        if (row.parseError() != null) {
+            errors.put("row", row.parseError());
+            return errors;
+        }
+        for (ConstraintViolation<PatientRequestDTO> violation :
+                validator.validate(row.patient(), Default.class, CreatePatientValidationGroup.class)) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private int importChunk(List<ParsedRow> chunk, Set<String> seenEmails, List<BulkImportRowResultDTO> results) {
+        // Nothing is reported or remembered until the chunk commits, so a rollback leaves no trace
+        List<BulkImportRowResultDTO> chunkResults = new ArrayList<>(chunk.size());
+        Set<String> acceptedEmails = new HashSet<>();
+        Integer inserted;
+        try {
+            inserted = transactionTemplate.execute(status ->
+                    insertChunk(chunk, seenEmails, acceptedEmails, chunkResults));
+        } catch (DataIntegrityViolationException e) {
+            if (chunk.size() == 1) {
+                results.add(rejected(chunk.get(0), e));
+                return 0;
+            }
+            // Most likely a concurrent insert took an email after the lookup: retry row by row so only that row fails
+            log.warn("Bulk import chunk rejected by the database, retrying its {} rows one at a time: {}",
+                    chunk.size(), e.getMostSpecificCause().getMessage());
+            int created = 0;
+            for (ParsedRow row : chunk) {
+                created += importChunk(List.of(row), seenEmails, results);
+            }
+            return created;
+        }
+        results.addAll(chunkResults);
+        seenEmails.addAll(acceptedEmails);
+        return inserted != null ? inserted : 0;
+    }
+
+    private int insertChunk(List<ParsedRow> chunk, Set<String> seenEmails, Set<String> acceptedEmails,
+                            List<BulkImportRowResultDTO> chunkResults) {
+        Set<String> chunkEmails = new HashSet<>();
+        chunk.forEach(row -> chunkEmails.add(row.patient().getEmail()));
+        Set<String> existing = new HashSet<>(patientRepository.findExistingEmails(chunkEmails));
+
+        List<Patient> accepted = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            String email = row.patient().getEmail();
+            if (existing.contains(email) || seenEmails.contains(email) || !acceptedEmails.add(email)) {
+                chunkResults.add(duplicate(row));
+                continue;
+            }
+            Patient patient = patientMapper.toPatient(row.patient());
+            patient.setId(UuidV7.next());
+            accepted.add(patient);
+            chunkResults.add(new BulkImportRowResultDTO(row.row(), Status.CREATED, patient.getId(), email, null));
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PATIENT, accepted, accepted.size(), (ps, patient) -> {
+            ps.setObject(1, patient.getId());
+            ps.setString(2, patient.getName());
+            ps.setString(3, patient.getEmail());
+            ps.setString(4, patient.getAddress());
+            ps.setTimestamp(5, new Timestamp(patient.getBirthDate().getTime()));
+            ps.setTimestamp(6, new Timestamp(patient.getRegisteredDate().getTime()));
+        });
+        patientEventOutbox.recordAll(accepted, PatientEventOutbox.PATIENT_CREATED);
+        billingAccountBatcher.submitAll(accepted.stream()
+                .map(patient -> BillingRequest.newBuilder()
+                        .setPatientId(patient.getId().toString())
+                        .setName(patient.getName())
+                        .setEmail(patient.getEmail())
+                        .build())
+                .toList());
+        return accepted.size();
+    }
+
+    private static BulkImportRowResultDTO duplicate(ParsedRow row) {
+        return new BulkImportRowResultDTO(row.row(), Status.DUPLICATE, null, row.patient().getEmail(),
+                Map.of("email", "A patient with this email already exists"));
+    }
+
+    private static BulkImportRowResultDTO rejected(ParsedRow row, DataIntegrityViolationException e) {
+        // The unique email index is the only constraint validation does not already cover
+        if (e instanceof DuplicateKeyException) {
+            return duplicate(row);
+        }
+        log.warn("Bulk import row {} rejected by the database: {}", row.row(), e.getMostSpecificCause().getMessage());
+        return new BulkImportRowResultDTO(row.row(), Status.INVALID, null, row.patient().getEmail(),
+                Map.of("row", "Rejected by the database"));
+    }
+}
@@ -0,0 +1,110 @@
+package app.service;
+
+import app.dto.PatientRequestDTO;
+import app.dto.PatientSearchResultDTO;
+import app.exception.InvalidSearchQueryException;
+import app.repository.PatientSearchRepository;
+import app.repository.PatientSearchRepository.Field;
+import app.repository.PatientSearchRepository.Mode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class PatientSearchService {
+
+    private final PatientSearchRepository patientSearchRepository;
+    private final Map<Mode, Timer> timers = new EnumMap<>(Mode.class);
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxResults;
+    private final int minQueryLength;
+
+    public PatientSearchService(PatientSearchRepository patientSearchRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${patient.search.default-page-size:20}") int defaultPageSize,
+                                @Value("${patient.search.max-page-size:100}") int maxPageSize,
+                                @Value("${patient.search.max-results:1000}") int maxResults,
+                                @Value("${patient.search.min-query-length:2}") int minQueryLength) {
+        this.patientSearchRepository = patientSearchRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxResults = maxResults;
+        this.minQueryLength = minQueryLength;
+        for (Mode mode : Mode.values()) {
+            timers.put(mode, Timer.builder("patient.search")
+                    .description("Patient search query time")
+                    .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PatientSearchResultDTO search(String query, String mode, List<String> fields, Integer page, Integer size) {
+        String normalized = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (normalized.length() < minQueryLength) {
+            throw new InvalidSearchQueryException("Search query must be at least " + minQueryLength + " characters");
+        }
+        Mode searchMode = parseMode(mode);
+        List<Field> searchFields = parseFields(fields);
+        if (searchMode == Mode.TEXT && PatientSearchRepository.toPrefixTsQuery(normalized).isEmpty()) {
+            throw new InvalidSearchQueryException("Text search needs at least one letter or digit");
+        }
+
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        // Results are ranked, so deep pages cost a growing OFFSET; refine the query instead
+        long offset = (long) pageNumber * pageSize;
+        if (offset + pageSize > maxResults) {
+            throw new InvalidSearchQueryException("Only the first " + maxResults + " results can be paged through");
+        }
+
+        log.debug("Searching patients: mode={}, fields={}, page={}, size={}", searchMode, searchFields, pageNumber, pageSize);
+        // Fetch one extra row to know whether another page exists without a count query
+        List<PatientRequestDTO> rows = timers.get(searchMode).record(() -> patientSearchRepository
+                .search(searchMode, normalized, searchFields, pageSize + 1, (int) offset));
+
+        boolean hasMore = rows.size() > pageSize;
+        return new PatientSearchResultDTO(hasMore ? rows.subList(0, pageSize) : rows, pageNumber, pageSize, hasMore);
+    }
+
+    private static Mode parseMode(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return Mode.PREFIX;
+        }
+        try {
+            return Mode.valueOf(mode.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchQueryException("Unknown search mode: " + mode);
+        }
+    }
+
+    private static List<Field> parseFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return List.of(Field.values());
+        }
+        List<Field> parsed = new ArrayList<>();
+        for (String field : fields) {
+            try {
+                Field value = Field.valueOf(field.strip().toUpperCase(Locale.ROOT));
+                if (!parsed.contains(value)) {
+                    parsed.add(value);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new InvalidSearchQueryException("Unknown search field: " + field);
+            }
+        }
+        return parsed;
+    }
+}
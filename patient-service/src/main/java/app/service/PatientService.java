@@ -1,20 +1,49 @@
 package app.service;
 
+import app.cache.PatientCache;
+import app.dto.PatientBatchResultDTO;
+import app.dto.PatientPageDTO;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
 import app.dto.PatientRequestDTO;
 import app.exception.EmailAlreadyExistsException;
-import app.grpc.BillingServiceGrpcClient;
-import app.kafka.KafkaProducer;
+import app.exception.InvalidBatchRequestException;
+import app.exception.InvalidFieldSelectionException;
+import app.grpc.BillingAccountBatcher;
+import app.helper.PageToken;
+import app.kafka.PatientEventOutbox;
 import app.mapper.PatientMapper;
 import app.model.Patient;
+import app.repository.PatientProjectionRepository.Field;
 import app.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -23,36 +52,240 @@ import java.util.UUID;
 public class PatientService {
 
     private final PatientRepository patientRepository;
-    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final BillingAccountBatcher billingAccountBatcher;
     private final PatientMapper patientMapper;
-    private final KafkaProducer kafkaProducer;
+    private final PatientEventOutbox patientEventOutbox;
+    private final EntityManager entityManager;
+    private final PatientCache patientCache;
 
-    public List<PatientRequestDTO> getAllPatients() {
-        log.info("Fetching all patients from the repository");
-        return patientRepository.findAll().stream()
-                .map(patientMapper::toPatientDTO)
-                .toList();
+    private static final String UNIQUE_EMAIL_INDEX = "uq_patient_email";
+
+    @Value("${patient.listing.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${patient.listing.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${patient.batch-get.max-ids:1000}")
+    private int maxBatchIds;
+
+    @Value("${patient.batch-get.max-stream-ids:100000}")
+    private int maxStreamIds;
+
+    @Value("${patient.batch-get.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Transactional(readOnly = true)
+    public PatientPageDTO getAllPatients(String pageToken, Integer size) {
+        int pageSize = pageSize(size);
+        log.info("Fetching patients page of size {} (continuation: {})", pageSize, pageToken != null);
+
+        // Fetch one extra row to know whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Patient> rows;
+        if (pageToken == null || pageToken.isBlank()) {
+            rows = patientRepository.findFirstPage(limit);
+        } else {
+            PageToken token = PageToken.decode(pageToken);
+            rows = patientRepository.findPageAfter(token.getRegisteredDate(), token.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Patient> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextPageToken = hasMore ? PageToken.encode(page.get(page.size() - 1)) : null;
+
+        return new PatientPageDTO(page.stream().map(patientMapper::toPatientDTO).toList(), nextPageToken);
     }
 
+    /**
+     * {@link #getAllPatients(String, Integer)} reduced to {@code fields}, selecting only those columns.
+     *
+     * @throws InvalidFieldSelectionException if a field is not in {@link Field}
+     */
+    @Transactional(readOnly = true)
+    public PatientProjectionPageDTO getAllPatients(String pageToken, Integer size, List<String> fields) {
+        Set<Field> requested = parseFields(fields);
+        int pageSize = pageSize(size);
+        log.info("Fetching patients page of size {} with fields {} (continuation: {})", pageSize, requested, pageToken != null);
+
+        // The next page token needs the sort key of the last row, whether or not it was asked for
+        Set<Field> selected = EnumSet.copyOf(requested);
+        selected.add(Field.ID);
+        selected.add(Field.REGISTERED_DATE);
+        PageToken token = pageToken == null || pageToken.isBlank() ? null : PageToken.decode(pageToken);
+        List<PatientProjectionDTO> rows = patientRepository.findPageProjected(selected,
+                token != null ? token.getRegisteredDate() : null, token != null ? token.getId() : null, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PatientProjectionDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextPageToken = null;
+        if (hasMore) {
+            PatientProjectionDTO last = page.get(page.size() - 1);
+            nextPageToken = PageToken.encode((Date) last.get(Field.REGISTERED_DATE.property()),
+                    (UUID) last.get(Field.ID.property()));
+        }
+        if (!selected.equals(requested)) {
+            List<String> properties = requested.stream().map(Field::property).toList();
+            page = page.stream().map(patient -> patient.retain(properties)).toList();
+        }
+        return new PatientProjectionPageDTO(page, nextPageToken);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllPatients(Consumer<PatientRequestDTO> consumer) {
+        log.info("Streaming all patients");
+        try (Stream<Patient> patients = patientRepository.streamAllOrdered()) {
+            patients.forEach(patient -> {
+                consumer.accept(patientMapper.toPatientDTO(patient));
+                // Keep the persistence context from growing with the result set
+                entityManager.detach(patient);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<PatientRequestDTO> getPatientById(UUID id) {
         log.info("Fetching patient with id: {}", id);
-        return patientRepository.findById(id)
-                .map(patientMapper::toPatientDTO);
+        return patientCache.get(id, key -> patientRepository.findById(key)
+                .map(patientMapper::toPatientDTO));
     }
 
-    public PatientRequestDTO createPatient(PatientRequestDTO patientRequestDTO) throws EmailAlreadyExistsException {
-        if (patientRepository.existsByEmail(patientRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistsException(
-                    "A patient with this email " + "already exists"
-                            + patientRequestDTO.getEmail());
+    /**
+     * {@link #getPatientById(UUID)} reduced to {@code fields}. A cached patient is projected in memory;
+     * otherwise only the requested columns are read, and the partial row is not cached.
+     *
+     * @throws InvalidFieldSelectionException if a field is not in {@link Field}
+     */
+    @Transactional(readOnly = true)
+    public Optional<PatientProjectionDTO> getPatientById(UUID id, List<String> fields) {
+        Set<Field> requested = parseFields(fields);
+        log.info("Fetching patient with id: {} and fields {}", id, requested);
+        PatientRequestDTO cached = patientCache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(project(cached, requested));
         }
+        return patientRepository.findProjectedById(id, requested);
+    }
 
-        Patient newPatient = patientRepository.save(patientMapper.toPatient(patientRequestDTO));
+    /**
+     * Resolves up to {@code patient.batch-get.max-ids} ids with one query for those not already cached.
+     *
+     * @throws InvalidBatchRequestException if there are no ids, too many, or a null id
+     */
+    @Transactional(readOnly = true)
+    public PatientBatchResultDTO getPatientsByIds(List<UUID> ids) {
+        checkBatch(ids, maxBatchIds);
+        log.info("Fetching {} patients by id", ids.size());
+        return lookup(new LinkedHashSet<>(ids));
+    }
 
-        billingServiceGrpcClient.createBillingAccount(newPatient.getId().toString(),
+    /**
+     * Like {@link #getPatientsByIds} for batches of up to {@code patient.batch-get.max-stream-ids}:
+     * resolved {@code patient.batch-get.chunk-size} ids per query, each chunk handed to
+     * {@code consumer} in request order as soon as it is loaded.
+     * <p>
+     * Runs without a surrounding transaction: each chunk's query gets its own, so a consumer that
+     * waits on a slow client does not hold a connection in between.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamPatientsByIds(List<UUID> ids, Consumer<PatientBatchResultDTO> consumer) {
+        checkBatch(ids, maxStreamIds);
+        log.info("Streaming {} patients by id", ids.size());
+        List<UUID> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        for (int from = 0; from < distinct.size(); from += batchChunkSize) {
+            consumer.accept(lookup(distinct.subList(from, Math.min(from + batchChunkSize, distinct.size()))));
+        }
+    }
+
+    // ids must be distinct and in request order
+    private PatientBatchResultDTO lookup(Collection<UUID> ids) {
+        Map<UUID, PatientRequestDTO> found = patientCache.getAll(ids, missing ->
+                patientRepository.findAllByIdIn(missing).stream()
+                        .map(patientMapper::toPatientDTO)
+                        .collect(Collectors.toMap(PatientRequestDTO::getId, Function.identity())));
+        List<PatientRequestDTO> patients = new ArrayList<>(found.size());
+        List<UUID> missingIds = new ArrayList<>(ids.size() - found.size());
+        for (UUID id : ids) {
+            PatientRequestDTO patient = found.get(id);
+            if (patient != null) {
+                patients.add(patient);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new PatientBatchResultDTO(patients, missingIds);
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    // Field names are matched against the allow-list, so nothing from the request reaches the SQL
+    private static Set<Field> parseFields(List<String> fields) {
+        Set<Field> parsed = EnumSet.noneOf(Field.class);
+        for (String name : fields == null ? List.<String>of() : fields) {
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            Field field = Arrays.stream(Field.values())
+                    .filter(candidate -> candidate.property().equalsIgnoreCase(name.strip()))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldSelectionException("Unknown field: " + name.strip()
+                            + " (allowed: " + Arrays.stream(Field.values()).map(Field::property)
+                            .collect(Collectors.joining(", ")) + ")"));
+            parsed.add(field);
+        }
+        if (parsed.isEmpty()) {
+            throw new InvalidFieldSelectionException("At least one field is required");
+        }
+        return parsed;
+    }
+
+    private static PatientProjectionDTO project(PatientRequestDTO patient, Set<Field> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Field field : fields) {
+            values.put(field.property(), switch (field) {
+                case ID -> patient.getId();
+                case NAME -> patient.getName();
+                case EMAIL -> patient.getEmail();
+                case ADDRESS -> patient.getAddress();
+                case BIRTH_DATE -> patient.getBirthDate();
+                case REGISTERED_DATE -> patient.getRegisteredDate();
+            });
+        }
+        return new PatientProjectionDTO(values);
+    }
+
+    private static void checkBatch(List<UUID> ids, int maxIds) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidBatchRequestException("At least one id is required");
+        }
+        if (ids.size() > maxIds) {
+            throw new InvalidBatchRequestException("At most " + maxIds + " ids can be requested at once");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidBatchRequestException("Ids must not be null");
+        }
+    }
+
+    public PatientRequestDTO createPatient(PatientRequestDTO patientRequestDTO) throws EmailAlreadyExistsException {
+        // The unique index decides, so two concurrent creates with one email cannot both succeed
+        Patient newPatient;
+        try {
+            newPatient = patientRepository.saveAndFlush(patientMapper.toPatient(patientRequestDTO));
+        } catch (DataIntegrityViolationException e) {
+            if (isViolationOf(e, UNIQUE_EMAIL_INDEX)) {
+                throw new EmailAlreadyExistsException(
+                        "A patient with this email " + "already exists"
+                                + patientRequestDTO.getEmail());
+            }
+            throw e;
+        }
+
+        billingAccountBatcher.submit(newPatient.getId().toString(),
                 newPatient.getName(), newPatient.getEmail());
 
-        kafkaProducer.sendEvent(newPatient);
+        patientEventOutbox.record(newPatient, PatientEventOutbox.PATIENT_CREATED);
         log.info("Created new patient with id: {}", newPatient.getId());
 
         return patientMapper.toPatientDTO(newPatient);
@@ -74,18 +307,38 @@ public class PatientService {
                     }
                     // Otherwise, keep the existing registeredDate unchanged
 
-                    Patient savedPatient = patientRepository.save(existingPatient);
+                    // Flushed here so an email taken by another patient surfaces as a conflict, not at commit
+                    Patient savedPatient;
+                    try {
+                        savedPatient = patientRepository.saveAndFlush(existingPatient);
+                    } catch (DataIntegrityViolationException e) {
+                        if (isViolationOf(e, UNIQUE_EMAIL_INDEX)) {
+                            throw new EmailAlreadyExistsException(
+                                    "A patient with this email already exists: " + patientRequestDTO.getEmail());
+                        }
+                        throw e;
+                    }
+                    patientEventOutbox.record(savedPatient, PatientEventOutbox.PATIENT_UPDATED);
+                    patientCache.evictAfterCommit(id);
                     return patientMapper.toPatientDTO(savedPatient);
                 });
     }
 
     public boolean deletePatient(UUID id) {
         log.info("Deleting patient with id: {}", id);
-        if (patientRepository.existsById(id)) {
-            patientRepository.deleteById(id);
+        Optional<Patient> patient = patientRepository.findById(id);
+        if (patient.isPresent()) {
+            patientRepository.delete(patient.get());
+            patientEventOutbox.record(patient.get(), PatientEventOutbox.PATIENT_DELETED);
+            patientCache.evictAfterCommit(id);
             return true;
         }
         log.warn("Patient with id: {} not found for deletion", id);
         return false;
     }
-}
\ No newline at end of file
+
+    private static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && constraintName.equalsIgnoreCase(violation.getConstraintName());
+    }
+}
@@ -0,0 +1,85 @@
+package app.web;
+
+import app.dto.PatientBatchResultDTO;
+import app.dto.PatientPageDTO;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
+import app.dto.PatientRequestDTO;
+import app.dto.PatientSearchResultDTO;
+import app.helper.PatientProtos;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import patient.api.Patient;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes the patient DTOs as {@code application/x-protobuf} using the messages in
+ * {@code patient.proto}, so controllers keep returning DTOs and the Accept header picks the format.
+ * Registered after Jackson, so JSON stays the default for {@code Accept: *}{@code /*}.
+ */
+public class PatientProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    public PatientProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == PatientRequestDTO.class
+                || clazz == PatientPageDTO.class
+                || clazz == PatientBatchResultDTO.class
+                || clazz == PatientProjectionDTO.class
+                || clazz == PatientProjectionPageDTO.class
+                || clazz == PatientSearchResultDTO.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        // Everything but a single full patient is a response only
+        return clazz == PatientRequestDTO.class && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return PatientProtos.fromProto(Patient.parseFrom(inputMessage.getBody()));
+        } catch (InvalidProtocolBufferException | IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf patient: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object dto, HttpOutputMessage outputMessage) throws IOException {
+        Message message = toProto(dto);
+        // Known up front, which also lets the compression filter skip small bodies without buffering
+        outputMessage.getHeaders().setContentLength(message.getSerializedSize());
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private static Message toProto(Object dto) {
+        if (dto instanceof PatientPageDTO page) {
+            return PatientProtos.toProto(page);
+        }
+        if (dto instanceof PatientSearchResultDTO result) {
+            return PatientProtos.toProto(result);
+        }
+        if (dto instanceof PatientBatchResultDTO result) {
+            return PatientProtos.toProto(result);
+        }
+        if (dto instanceof PatientProjectionPageDTO page) {
+            return PatientProtos.toProto(page);
+        }
+        if (dto instanceof PatientProjectionDTO patient) {
+            return PatientProtos.toProto(patient);
+        }
+        return PatientProtos.toProto((PatientRequestDTO) dto);
+    }
+}
@@ -0,0 +1,42 @@
+package app.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended, so Jackson still wins when the client accepts anything
+        converters.add(new PatientProtobufHttpMessageConverter());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+    public FilterRegistrationBean<ZstdCompressionFilter> zstdCompressionFilter(
+            ServerProperties serverProperties,
+            @Value("${patient.compression.zstd-level:3}") int level) {
+        Compression compression = serverProperties.getCompression();
+        List<MediaType> mimeTypes = Arrays.stream(compression.getMimeTypes())
+                .map(MediaType::parseMediaType)
+                .toList();
+        FilterRegistrationBean<ZstdCompressionFilter> registration = new FilterRegistrationBean<>(
+                new ZstdCompressionFilter(mimeTypes, Math.toIntExact(compression.getMinResponseSize().toBytes()), level));
+        // Outermost, so it sees the body exactly as it goes on the wire
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
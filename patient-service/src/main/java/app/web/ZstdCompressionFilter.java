@@ -0,0 +1,298 @@
+package app.web;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes responses with zstd for clients that advertise it in Accept-Encoding. Tomcat's own
+ * {@code server.compression} only speaks gzip; this filter uses the same mime types and minimum
+ * size, and once it sets Content-Encoding Tomcat leaves the response alone.
+ * <p>
+ * Bodies are held back until they reach the minimum size, so small responses go out unencoded with a
+ * Content-Length, while large ones (including the streaming export) are encoded as they are written.
+ * A body written through a {@link WriteListener} is left unencoded, to Tomcat's gzip, since zstd's
+ * own writes to the socket cannot follow the non-blocking contract.
+ */
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+    private final List<MediaType> mimeTypes;
+    private final int minResponseBytes;
+    private final int level;
+
+    public ZstdCompressionFilter(List<MediaType> mimeTypes, int minResponseBytes, int level) {
+        this.mimeTypes = mimeTypes;
+        this.minResponseBytes = minResponseBytes;
+        this.level = level;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // The async dispatch after a StreamingResponseBody sees the wrapper installed by the first dispatch
+        ZstdResponse zstdResponse = WebUtils.getNativeResponse(response, ZstdResponse.class);
+        if (zstdResponse == null) {
+            if (!acceptsZstd(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) || "HEAD".equals(request.getMethod())) {
+                chain.doFilter(request, response);
+                return;
+            }
+            zstdResponse = new ZstdResponse(response);
+        }
+        chain.doFilter(request, zstdResponse);
+        if (!isAsyncStarted(request)) {
+            zstdResponse.finish();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    static boolean acceptsZstd(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : StringUtils.commaDelimitedListToStringArray(acceptEncoding)) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("zstd")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean compressible(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        if (contentType == null || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        int status = response.getStatus();
+        if (status < 200 || status == HttpServletResponse.SC_NO_CONTENT
+                || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+    }
+
+    private final class ZstdResponse extends HttpServletResponseWrapper {
+
+        private final BufferingOutputStream stream;
+        private PrintWriter writer;
+        private long declaredLength = -1;
+
+        ZstdResponse(HttpServletResponse response) {
+            super(response);
+            this.stream = new BufferingOutputStream(response);
+        }
+
+        // The length is only known to be right if the body ends up unencoded, so it is applied on that path
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            declaredLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                Charset charset = getCharacterEncoding() != null
+                        ? Charset.forName(getCharacterEncoding()) : StandardCharsets.ISO_8859_1;
+                writer = new PrintWriter(new OutputStreamWriter(stream, charset));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            stream.flush();
+        }
+
+        @Override
+        public void resetBuffer() {
+            stream.resetBuffer();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            stream.resetBuffer();
+            declaredLength = -1;
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            stream.finish();
+        }
+
+        private final class BufferingOutputStream extends ServletOutputStream {
+
+            private final HttpServletResponse response;
+            private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+            // null until decided; then either the raw servlet stream or a zstd stream over it
+            private OutputStream target;
+            private ServletOutputStream raw;
+            private boolean finished;
+
+            BufferingOutputStream(HttpServletResponse response) {
+                this.response = response;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (target == null) {
+                    if (declaredLength >= 0 || !compressible(response)) {
+                        decide(declaredLength < 0 || declaredLength >= minResponseBytes);
+                    } else {
+                        pending.write(b, off, len);
+                        if (pending.size() >= minResponseBytes) {
+                            decide(true);
+                        }
+                        return;
+                    }
+                }
+                target.write(b, off, len);
+            }
+
+            // Held back while undecided: committing the response here would fix the headers too early
+            @Override
+            public void flush() throws IOException {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            void resetBuffer() {
+                if (target == null) {
+                    pending = new ByteArrayOutputStream();
+                }
+            }
+
+            void finish() throws IOException {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (target == null) {
+                    if (declaredLength < 0 && pending.size() > 0) {
+                        declaredLength = pending.size();
+                    }
+                    decide(false);
+                }
+                target.close();
+            }
+
+            private void decide(boolean large) throws IOException {
+                raw = response.getOutputStream();
+                if (large && compressible(response)) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "zstd");
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    target = new ZstdOutputStream(raw, level);
+                } else {
+                    if (declaredLength >= 0) {
+                        response.setContentLengthLong(declaredLength);
+                    }
+                    target = raw;
+                }
+                pending.writeTo(target);
+                pending = null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+            }
+
+            // Undecided writes only go to memory, so they are always accepted
+            @Override
+            public boolean isReady() {
+                return target == null || raw.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                if (target == null) {
+                    try {
+                        decide(false);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                } else if (target != raw) {
+                    // Only reachable by writing a full minimum-size body before going non-blocking
+                    throw new IllegalStateException("Response body is already being zstd-encoded");
+                }
+                raw.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Patient schema. Column types match what Hibernate expects for app.model.Patient and
+-- app.model.PatientOutboxEvent (spring.jpa.hibernate.ddl-auto=validate).
+-- IF NOT EXISTS lets the migration baseline databases created by the old ddl-auto=create setup.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE IF NOT EXISTS patient
+(
+    id              UUID PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    address         VARCHAR(255) NOT NULL,
+    birth_date      TIMESTAMP(6) NOT NULL,
+    registered_date TIMESTAMP(6) NOT NULL
+);
+
+-- Enforced here rather than by an existsByEmail check, which two concurrent creates can both pass
+CREATE UNIQUE INDEX IF NOT EXISTS uq_patient_email ON patient (email);
+
+CREATE TABLE IF NOT EXISTS patient_outbox
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id VARCHAR(255)                NOT NULL,
+    event_type VARCHAR(255)                NOT NULL,
+    payload    BYTEA                       NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
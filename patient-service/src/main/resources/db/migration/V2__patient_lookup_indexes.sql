@@ -0,0 +1,13 @@
+-- Secondary indexes for listing and lookups.
+--
+-- Index migrations use CREATE INDEX CONCURRENTLY so they do not block writes on a populated
+-- table; Flyway runs such scripts outside a transaction, so keep them free of other statements.
+-- A failed concurrent build leaves an INVALID index behind: drop it before re-running.
+
+-- Keyset pagination: GET /patients and the export seek and sort on (registered_date, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_registered_date_id ON patient (registered_date, id);
+
+-- Case-insensitive prefix lookups; text_pattern_ops makes LIKE 'abc%' an index range scan
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_name_prefix ON patient (lower(name) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_email_prefix ON patient (lower(email) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_address_prefix ON patient (lower(address) text_pattern_ops);
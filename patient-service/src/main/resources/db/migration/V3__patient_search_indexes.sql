@@ -0,0 +1,11 @@
+-- Indexes for GET /patients/search (PatientSearchRepository), built online like V2.
+-- Trigram GIN indexes serve fuzzy matching and LIKE on any field; the text_pattern_ops btrees
+-- from V2 serve short prefixes, where trigrams cannot help, and return rows already ordered.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_name_trgm ON patient USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_email_trgm ON patient USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_address_trgm ON patient USING gin (lower(address) gin_trgm_ops);
+
+-- Must match PatientSearchRepository.DOCUMENT
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_search_document ON patient
+    USING gin (to_tsvector('simple', name || ' ' || email || ' ' || address));
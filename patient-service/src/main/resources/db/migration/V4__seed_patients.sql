@@ -1,23 +1,4 @@
--- Ensure the 'patient' table exists
-CREATE TABLE IF NOT EXISTS patient
-(
-    id              UUID PRIMARY KEY,
-    name            VARCHAR(255)        NOT NULL,
-    email           VARCHAR(255) UNIQUE NOT NULL,
-    address         VARCHAR(255)        NOT NULL,
-    birth_date      DATE                NOT NULL,
-    registered_date DATE                NOT NULL
-);
-
--- -- Patient code sequence
--- CREATE SEQUENCE IF NOT EXISTS patient_code_seq
---     START WITH 1
---     INCREMENT BY 1
---     NO MINVALUE
---     NO MAXVALUE
---     CACHE 1;
-
--- Insert known patients (with well-known UUIDs)
+-- Demo patients with well-known UUIDs, used by the integration tests and the README examples
 INSERT INTO patient (id, name, email, address, birth_date, registered_date)
 SELECT '123e4567-e89b-12d3-a456-426614174000',
        'John Doe',
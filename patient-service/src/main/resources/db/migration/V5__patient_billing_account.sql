@@ -0,0 +1,5 @@
+-- Billing account confirmed by billing-service for the patient; NULL until the create is
+-- acknowledged, which is what the billing reconciliation job looks for.
+-- Not mapped on app.model.Patient: only the billing hand-off and reconciliation touch it.
+
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS billing_account_id UUID;
@@ -0,0 +1,5 @@
+-- Reconciliation walks patients still lacking a billing account in id order. The partial index
+-- only holds those rows, so it stays tiny once billing has caught up.
+-- CONCURRENTLY, so kept apart from V5 (see V2).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_billing_pending ON patient (id) WHERE billing_account_id IS NULL;
@@ -0,0 +1,124 @@
+package com.pm.patientservice;
+
+import app.grpc.BillingChannelPool;
+import app.grpc.BillingServiceGrpcClient;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the billing client through an in-process billing-service stand-in to check that the
+ * pool's deadlines, retry policy and call metrics are wired as configured.
+ */
+class BillingChannelPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Server server;
+    private BillingChannelPool pool;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void callsAreRecordedPerMethodAndStatus() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        start(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+                calls.incrementAndGet();
+                respond(request, responseObserver);
+            }
+        }, 3);
+        BillingServiceGrpcClient client = new BillingServiceGrpcClient(pool, 1000, 1000);
+
+        for (int i = 0; i < 6; i++) {
+            client.createBillingAccount("p" + i, "Name", "p" + i + "@example.com");
+        }
+
+        assertThat(calls.get()).isEqualTo(6);
+        assertThat(pool.size()).isEqualTo(3);
+        assertThat(meterRegistry.get("grpc.client.calls")
+                .tag("method", "BillingService/CreateBillingAccount")
+                .tag("status", "OK")
+                .timer().count()).isEqualTo(6);
+        assertThat(meterRegistry.get("grpc.client.calls.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void unansweredCallFailsAtTheDeadline() throws IOException {
+        start(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+                // never responds
+            }
+        }, 1);
+        BillingServiceGrpcClient client = new BillingServiceGrpcClient(pool, 100, 1000);
+
+        assertThatThrownBy(() -> client.createBillingAccount("p1", "Name", "p1@example.com"))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+        assertThat(meterRegistry.get("grpc.client.calls")
+                .tag("status", "DEADLINE_EXCEEDED")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unavailableIsRetriedByTheServiceConfig() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        start(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+                if (attempts.incrementAndGet() == 1) {
+                    responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                    return;
+                }
+                respond(request, responseObserver);
+            }
+        }, 1);
+        BillingServiceGrpcClient client = new BillingServiceGrpcClient(pool, 2000, 1000);
+
+        client.createBillingAccount("p1", "Name", "p1@example.com");
+
+        assertThat(attempts.get()).isEqualTo(2);
+        // One logical call, one sample, whatever the attempts underneath
+        assertThat(meterRegistry.get("grpc.client.calls").tag("status", "OK").timer().count()).isEqualTo(1);
+    }
+
+    private void start(BillingServiceGrpc.BillingServiceImplBase service, int poolSize) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        pool = new BillingChannelPool(poolSize, () -> InProcessChannelBuilder.forName(name),
+                BillingChannelPool.serviceConfig(3, 0), meterRegistry);
+    }
+
+    private static void respond(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
+        responseObserver.onNext(BillingResponse.newBuilder()
+                .setAccountId("acc-" + request.getPatientId())
+                .setPatientId(request.getPatientId())
+                .setStatus("ACTIVE")
+                .build());
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,110 @@
+package com.pm.patientservice;
+
+import app.dto.PatientBatchResultDTO;
+import app.dto.PatientRequestDTO;
+import app.exception.InvalidBatchRequestException;
+import app.model.Patient;
+import app.repository.PatientRepository;
+import app.service.PatientService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch lookups by id: one repository query for the ids not cached, results in request order.
+ */
+class PatientBatchLookupTest {
+
+    private final PatientServiceFixture fixture = new PatientServiceFixture()
+            .with("maxBatchIds", 10)
+            .with("maxStreamIds", 100)
+            .with("batchChunkSize", 3);
+    private final PatientRepository patientRepository = fixture.patientRepository;
+    private final PatientService patientService = fixture.patientService;
+    private final List<Collection<UUID>> queries = new ArrayList<>();
+
+    @Test
+    void returnsFoundAndMissingIdsInRequestOrder() {
+        UUID first = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        stored(first, last);
+
+        PatientBatchResultDTO result = patientService.getPatientsByIds(List.of(last, missing, first, last));
+
+        assertThat(result.getPatients()).extracting(PatientRequestDTO::getId).containsExactly(last, first);
+        assertThat(result.getMissingIds()).containsExactly(missing);
+        assertThat(queries).hasSize(1);
+    }
+
+    @Test
+    void queriesOnlyIdsThatAreNotCached() {
+        UUID cached = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        stored(cached, other);
+        patientService.getPatientsByIds(List.of(cached));
+        queries.clear();
+
+        PatientBatchResultDTO result = patientService.getPatientsByIds(List.of(other, cached));
+
+        assertThat(result.getPatients()).extracting(PatientRequestDTO::getId).containsExactly(other, cached);
+        assertThat(queries).containsExactly(List.of(other));
+    }
+
+    @Test
+    void streamsOneChunkPerQueryInRequestOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        stored(ids.toArray(UUID[]::new));
+
+        List<PatientBatchResultDTO> chunks = new ArrayList<>();
+        patientService.streamPatientsByIds(ids, chunks::add);
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks).flatExtracting(PatientBatchResultDTO::getPatients)
+                .extracting(PatientRequestDTO::getId).containsExactlyElementsOf(ids);
+        assertThat(queries).hasSize(3);
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThatThrownBy(() -> patientService.getPatientsByIds(List.of()))
+                .isInstanceOf(InvalidBatchRequestException.class);
+        List<UUID> tooMany = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            tooMany.add(UUID.randomUUID());
+        }
+        assertThatThrownBy(() -> patientService.getPatientsByIds(tooMany))
+                .isInstanceOf(InvalidBatchRequestException.class);
+    }
+
+    // The repository answers in arbitrary order, like an IN query does
+    private void stored(UUID... ids) {
+        List<Patient> patients = new ArrayList<>();
+        for (UUID id : ids) {
+            Patient patient = new Patient();
+            patient.setId(id);
+            patient.setName("Patient " + id);
+            patient.setEmail(id + "@example.com");
+            patient.setAddress("1 Main St");
+            patient.setBirthDate(new Date(0));
+            patients.add(0, patient);
+        }
+        when(patientRepository.findAllByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> requested = invocation.getArgument(0);
+            queries.add(List.copyOf(requested));
+            return patients.stream().filter(patient -> requested.contains(patient.getId())).toList();
+        });
+    }
+}
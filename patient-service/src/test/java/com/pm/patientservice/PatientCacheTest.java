@@ -0,0 +1,72 @@
+package com.pm.patientservice;
+
+import app.cache.PatientCache;
+import app.dto.PatientRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A row loaded before a write's eviction must not be cached after it.
+ */
+class PatientCacheTest {
+
+    private final PatientCache patientCache = new PatientCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Test
+    void dropsAnEntryEvictedWhileItWasLoading() {
+        UUID id = UUID.randomUUID();
+
+        Optional<PatientRequestDTO> loaded = patientCache.get(id, key -> {
+            // The write commits between the read and the put
+            patientCache.evict(key);
+            return Optional.of(patient(key));
+        });
+
+        assertThat(loaded).isPresent();
+        assertThat(patientCache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    void dropsOnlyBatchEntriesEvictedWhileLoading() {
+        UUID evicted = UUID.randomUUID();
+        UUID kept = otherStripeThan(evicted);
+
+        patientCache.getAll(List.of(evicted, kept), missing -> {
+            patientCache.evict(evicted);
+            return Map.of(evicted, patient(evicted), kept, patient(kept));
+        });
+
+        assertThat(patientCache.getIfPresent(evicted)).isNull();
+        assertThat(patientCache.getIfPresent(kept)).isNotNull();
+    }
+
+    @Test
+    void cachesWhatNoEvictionRacedWith() {
+        UUID id = UUID.randomUUID();
+
+        patientCache.get(id, key -> Optional.of(patient(key)));
+
+        assertThat(patientCache.getIfPresent(id)).isNotNull();
+    }
+
+    private static UUID otherStripeThan(UUID id) {
+        UUID other;
+        do {
+            other = UUID.randomUUID();
+        } while (Math.floorMod(other.hashCode(), 1024) == Math.floorMod(id.hashCode(), 1024));
+        return other;
+    }
+
+    private static PatientRequestDTO patient(UUID id) {
+        return new PatientRequestDTO(id, "Jane Doe", "jane@example.com", "1 Main St", new Date(0), new Date(0));
+    }
+}
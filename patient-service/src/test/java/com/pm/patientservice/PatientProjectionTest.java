@@ -0,0 +1,94 @@
+package com.pm.patientservice;
+
+import app.cache.PatientCache;
+import app.dto.PatientProjectionDTO;
+import app.dto.PatientProjectionPageDTO;
+import app.dto.PatientRequestDTO;
+import app.exception.InvalidFieldSelectionException;
+import app.helper.PageToken;
+import app.repository.PatientProjectionRepository.Field;
+import app.repository.PatientRepository;
+import app.service.PatientService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code fields=} reads: the allow-list, the columns handed to the repository and what the client gets back.
+ */
+class PatientProjectionTest {
+
+    private final PatientServiceFixture fixture = new PatientServiceFixture()
+            .with("defaultPageSize", 2)
+            .with("maxPageSize", 10);
+    private final PatientRepository patientRepository = fixture.patientRepository;
+    private final PatientCache patientCache = fixture.patientCache;
+    private final PatientService patientService = fixture.patientService;
+
+    @Test
+    void selectsTheSortKeyButReturnsOnlyRequestedFields() {
+        List<PatientProjectionDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(row(UUID.randomUUID(), "Patient " + i, new Date(1_700_000_000_000L + i)));
+        }
+        when(patientRepository.findPageProjected(eq(EnumSet.of(Field.ID, Field.NAME, Field.REGISTERED_DATE)),
+                isNull(), isNull(), eq(3))).thenReturn(rows);
+
+        PatientProjectionPageDTO page = patientService.getAllPatients(null, null, List.of("name"));
+
+        assertThat(page.getPatients()).extracting(PatientProjectionDTO::getFields)
+                .containsExactly(Map.of("name", "Patient 0"), Map.of("name", "Patient 1"));
+        PageToken token = PageToken.decode(page.getNextPageToken());
+        assertThat(token.getId()).isEqualTo(rows.get(1).get("id"));
+        assertThat(token.getRegisteredDate()).isEqualTo(rows.get(1).get("registeredDate"));
+    }
+
+    @Test
+    void projectsACachedPatientWithoutQuerying() {
+        UUID id = UUID.randomUUID();
+        PatientRequestDTO patient = new PatientRequestDTO(id, "Jane Doe", "jane@example.com", "1 Main St",
+                new Date(0), new Date(0));
+        patientCache.get(id, key -> Optional.of(patient));
+
+        Optional<PatientProjectionDTO> projected = patientService.getPatientById(id, List.of("id", "email"));
+
+        assertThat(projected).map(PatientProjectionDTO::getFields)
+                .contains(Map.of("id", id, "email", "jane@example.com"));
+        verify(patientRepository, never()).findProjectedById(any(), any());
+    }
+
+    @Test
+    void rejectsFieldsOutsideTheAllowList() {
+        assertThatThrownBy(() -> patientService.getAllPatients(null, null, List.of("name", "billing_account_id")))
+                .isInstanceOf(InvalidFieldSelectionException.class)
+                .hasMessageContaining("billing_account_id");
+        assertThatThrownBy(() -> patientService.getPatientById(UUID.randomUUID(), List.of(" ")))
+                .isInstanceOf(InvalidFieldSelectionException.class);
+        verify(patientRepository, never()).findPageProjected(any(), any(), any(), anyInt());
+    }
+
+    private static PatientProjectionDTO row(UUID id, String name, Date registeredDate) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", id);
+        fields.put("name", name);
+        fields.put("registeredDate", registeredDate);
+        return new PatientProjectionDTO(fields);
+    }
+}
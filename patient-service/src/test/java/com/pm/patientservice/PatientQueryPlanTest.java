@@ -0,0 +1,104 @@
+package com.pm.patientservice;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against Postgres and checks that the queries behind the patient
+ * endpoints are answered from their intended index, so dropping or changing an index fails the build.
+ * Sequential scans are disabled, so the planner only falls back to one when no index applies.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PatientQueryPlanTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO patient (id, name, email, address, birth_date, registered_date)
+                    SELECT gen_random_uuid(), 'Patient ' || g, 'patient' || g || '@example.com',
+                           g || ' Main St, Springfield', DATE '1980-01-01' + (g % 10000), DATE '2020-01-01' + (g % 1500)
+                    FROM generate_series(1, 20000) g""");
+            statement.execute("ANALYZE patient");
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void emailLookupUsesUniqueIndex() throws SQLException {
+        assertThat(plan("SELECT p.email FROM patient p WHERE p.email IN ('patient42@example.com', 'patient43@example.com')"))
+                .contains("\"Index Name\": \"uq_patient_email\"");
+    }
+
+    @Test
+    void keysetPagesUseRegisteredDateIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM patient ORDER BY registered_date, id LIMIT 51"))
+                .contains("\"Index Name\": \"idx_patient_registered_date_id\"")
+                .doesNotContain("\"Node Type\": \"Sort\"");
+        assertThat(plan("SELECT * FROM patient WHERE registered_date > '2022-01-01' "
+                + "OR (registered_date = '2022-01-01' AND id > '00000000-0000-0000-0000-000000000000') "
+                + "ORDER BY registered_date, id LIMIT 51"))
+                .contains("\"Index Name\": \"idx_patient_registered_date_id\"");
+    }
+
+    @Test
+    void namePrefixSearchUsesPrefixIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM patient WHERE lower(name) LIKE 'patient 12%' ORDER BY lower(name), id LIMIT 21"))
+                .containsAnyOf("\"Index Name\": \"idx_patient_name_prefix\"", "\"Index Name\": \"idx_patient_name_trgm\"");
+    }
+
+    @Test
+    void fuzzySearchUsesTrigramIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM patient WHERE 'patiant 1234' <% lower(name) "
+                + "ORDER BY word_similarity('patiant 1234', lower(name)) DESC, id LIMIT 21"))
+                .contains("\"Index Name\": \"idx_patient_name_trgm\"");
+    }
+
+    @Test
+    void textSearchUsesDocumentIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM patient "
+                + "WHERE to_tsvector('simple', name || ' ' || email || ' ' || address) @@ to_tsquery('simple', 'patient:* & spring:*') "
+                + "LIMIT 21"))
+                .contains("\"Index Name\": \"idx_patient_search_document\"");
+    }
+
+    private static String plan(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            rs.next();
+            String plan = rs.getString(1);
+            assertThat(plan).as("plan for %s", sql).doesNotContain("\"Node Type\": \"Seq Scan\"");
+            return plan;
+        }
+    }
+}
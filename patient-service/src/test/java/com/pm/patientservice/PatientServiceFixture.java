@@ -0,0 +1,32 @@
+package com.pm.patientservice;
+
+import app.cache.PatientCache;
+import app.grpc.BillingAccountBatcher;
+import app.kafka.PatientEventOutbox;
+import app.mapper.PatientMapperImpl;
+import app.repository.PatientRepository;
+import app.service.PatientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * A PatientService over a mocked repository and a real PatientCache, for tests of its read paths.
+ * Settings normally injected from {@code patient.*} properties are set with {@link #with}.
+ */
+final class PatientServiceFixture {
+
+    final PatientRepository patientRepository = mock(PatientRepository.class);
+    final PatientCache patientCache = new PatientCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    final PatientService patientService = new PatientService(patientRepository, mock(BillingAccountBatcher.class),
+            new PatientMapperImpl(), mock(PatientEventOutbox.class), mock(EntityManager.class), patientCache);
+
+    PatientServiceFixture with(String setting, Object value) {
+        ReflectionTestUtils.setField(patientService, setting, value);
+        return this;
+    }
+}
@@ -0,0 +1,168 @@
+package com.pm.patientservice;
+
+import app.web.ZstdCompressionFilter;
+import com.github.luben.zstd.Zstd;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks when responses get zstd encoded: only for clients that accept it, only for the configured
+ * mime types, and only once the body reaches the minimum size.
+ */
+class ZstdCompressionFilterTest {
+
+    private static final int MIN_BYTES = 1024;
+
+    private final ZstdCompressionFilter filter = new ZstdCompressionFilter(
+            List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType("application/x-ndjson")), MIN_BYTES, 3);
+
+    @Test
+    void encodesLargeJsonWhenZstdIsAccepted() throws Exception {
+        byte[] body = json(MIN_BYTES * 4);
+        MockHttpServletResponse response = run("gzip, deflate, br, zstd", MediaType.APPLICATION_JSON_VALUE, body, false);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        byte[] encoded = response.getContentAsByteArray();
+        assertThat(encoded.length).isLessThan(body.length);
+        assertThat(Zstd.decompress(encoded, body.length)).isEqualTo(body);
+    }
+
+    @Test
+    void encodesWhenTheDeclaredLengthIsLargeEnough() throws Exception {
+        byte[] body = json(MIN_BYTES * 4);
+        MockHttpServletResponse response = run("zstd", MediaType.APPLICATION_JSON_VALUE, body, true);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        // The declared length was for the unencoded body
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(Zstd.decompress(response.getContentAsByteArray(), body.length)).isEqualTo(body);
+    }
+
+    @Test
+    void leavesSmallBodiesUnencodedWithALength() throws Exception {
+        byte[] body = json(MIN_BYTES / 2);
+        MockHttpServletResponse response = run("zstd", MediaType.APPLICATION_JSON_VALUE, body, false);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentLength()).isEqualTo(body.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void leavesOtherMimeTypesAlone() throws Exception {
+        byte[] body = json(MIN_BYTES * 4);
+        MockHttpServletResponse response = run("zstd", "application/x-protobuf", body, false);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void respectsAZeroQuality() throws Exception {
+        byte[] body = json(MIN_BYTES * 4);
+        MockHttpServletResponse response = run("gzip, zstd;q=0", MediaType.APPLICATION_JSON_VALUE, body, false);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void leavesNonBlockingWritesUnencoded() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patients");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "zstd");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        NonBlockingOutputStream raw = new NonBlockingOutputStream();
+        HttpServletResponseWrapper container = new HttpServletResponseWrapper(response) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return raw;
+            }
+        };
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        byte[] body = json(MIN_BYTES * 4);
+        FilterChain chain = (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ServletOutputStream out = res.getOutputStream();
+            out.setWriteListener(listener);
+            assertThat(out.isReady()).isTrue();
+            out.write(body);
+        };
+
+        filter.doFilter(request, container, chain);
+
+        assertThat(raw.listener).isSameAs(listener);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(raw.written.toByteArray()).isEqualTo(body);
+    }
+
+    private MockHttpServletResponse run(String acceptEncoding, String contentType, byte[] body,
+                                        boolean declareLength) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patients");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(contentType);
+            if (declareLength) {
+                res.setContentLength(body.length);
+            }
+            // Written in pieces, as Jackson and the export stream do
+            for (int offset = 0; offset < body.length; offset += 100) {
+                res.getOutputStream().write(body, offset, Math.min(100, body.length - offset));
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static final class NonBlockingOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private WriteListener listener;
+
+        @Override
+        public void write(int b) {
+            written.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return listener != null;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+    }
+
+    private static byte[] json(int length) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < length - 1; i++) {
+            json.append("{\"name\":\"Patient ").append(i).append("\"},");
+        }
+        json.setLength(length - 1);
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}